@@ -0,0 +1,90 @@
+package com.jm.spring_threads_benchmarks.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore-based concurrency cap for one endpoint/operation class.
+ * Callers that cannot get a permit within {@code maxWait} get a {@link BulkheadFullException}
+ * instead of queueing on the shared Hikari pool. An {@link #unbounded} bulkhead is a pass-through: no semaphore,
+ * no meters, so an unconfigured endpoint runs exactly as it did without one.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int limit;
+    private final Duration maxWait;
+    private final Semaphore permits;      // null = pass-through
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public static Bulkhead unbounded(String name) {
+        return new Bulkhead(name);
+    }
+
+    private Bulkhead(String name) {
+        this.name = name;
+        this.limit = Integer.MAX_VALUE;
+        this.maxWait = Duration.ZERO;
+        this.permits = null;
+        this.waitTimer = null;
+        this.rejected = null;
+    }
+
+    public Bulkhead(String name, int limit, Duration maxWait, MeterRegistry mr) {
+        this.name = name;
+        this.limit = limit;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(limit, true);
+
+        this.waitTimer = Timer.builder("bulkhead.wait").tag("bulkhead", name).register(mr);
+        this.rejected = Counter.builder("bulkhead.rejected").tag("bulkhead", name).register(mr);
+        Gauge.builder("bulkhead.active", this, Bulkhead::active).tag("bulkhead", name).register(mr);
+        Gauge.builder("bulkhead.limit", this, b -> b.limit).tag("bulkhead", name).register(mr);
+        Gauge.builder("bulkhead.saturation", this, b -> (double) b.active() / b.limit)
+                .tag("bulkhead", name).register(mr);
+    }
+
+    public String name() { return name; }
+
+    public int active() { return permits == null ? 0 : limit - permits.availablePermits(); }
+
+    public <T> T call(Supplier<T> body) {
+        if (permits == null) return body.get();
+        acquire();
+        try {
+            return body.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable body) {
+        call(() -> { body.run(); return null; });
+    }
+
+    private void acquire() {
+        long t0 = System.nanoTime();
+        boolean ok;
+        try {
+            ok = maxWait.isZero()
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            ok = false;
+        }
+        waitTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        if (!ok) {
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.jm.spring_threads_benchmarks.bulkhead;
+
+import lombok.Getter;
+
+@Getter
+public class BulkheadFullException extends RuntimeException {
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead) {
+        super("Bulkhead '" + bulkhead + "' is saturated");
+        this.bulkhead = bulkhead;
+    }
+}
@@ -0,0 +1,26 @@
+package com.jm.spring_threads_benchmarks.bulkhead;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties("bench.bulkheads")
+public class BulkheadProperties {
+
+    // keyed by bulkhead name, e.g. bench.bulkheads.instances.report.max-concurrent=4
+    private Map<String, Spec> instances = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class Spec {
+        private int maxConcurrent = 0;                  // permits; <= 0 = unbounded
+        private Duration maxWait = Duration.ZERO;       // 0 = fail fast when saturated
+        private int dedicatedPoolSize = 0;              // 0 = share the main Hikari pool
+    }
+}
@@ -0,0 +1,79 @@
+package com.jm.spring_threads_benchmarks.bulkhead;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadRegistry implements DisposableBean {
+
+    private final BulkheadProperties props;
+    private final MeterRegistry mr;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, HikariDataSource> dedicatedPools = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(BulkheadProperties props, MeterRegistry mr) {
+        this.props = props;
+        this.mr = mr;
+    }
+
+    public Bulkhead get(String name) {
+        return bulkheads.computeIfAbsent(name, n -> {
+            var spec = spec(n);
+            return spec.getMaxConcurrent() > 0
+                    ? new Bulkhead(n, spec.getMaxConcurrent(), spec.getMaxWait(), mr)
+                    : Bulkhead.unbounded(n);
+        });
+    }
+
+    /**
+     * JdbcTemplate for work running inside bulkhead {@code name}: a dedicated Hikari pool when
+     * {@code dedicated-pool-size > 0}, otherwise {@code shared} as-is.
+     */
+    public JdbcTemplate jdbc(String name, JdbcTemplate shared) {
+        int size = spec(name).getDedicatedPoolSize();
+        HikariDataSource primary = size > 0 ? hikari(shared.getDataSource()) : null;
+        if (primary == null)
+            return shared;
+
+        var ds = dedicatedPools.computeIfAbsent(name, n -> dedicatedPool(n, primary, size));
+        return new JdbcTemplate(ds);
+    }
+
+    // the pool may sit behind a proxy (JDBC observation wraps the DataSource)
+    private static HikariDataSource hikari(DataSource ds) {
+        try {
+            return ds != null && ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private HikariDataSource dedicatedPool(String name, HikariDataSource primary, int size) {
+        var cfg = new HikariConfig();
+        primary.copyStateTo(cfg);                    // same URL/credentials/timeouts/metrics tracker
+        cfg.setPoolName("bulkhead-" + name);         // hikaricp.* meters get pool="bulkhead-<name>"
+        cfg.setMaximumPoolSize(size);
+        cfg.setMinimumIdle(size);
+        return new HikariDataSource(cfg);
+    }
+
+    private BulkheadProperties.Spec spec(String name) {
+        return props.getInstances().getOrDefault(name, new BulkheadProperties.Spec());
+    }
+
+    @Override
+    public void destroy() {
+        dedicatedPools.values().forEach(HikariDataSource::close);
+    }
+}
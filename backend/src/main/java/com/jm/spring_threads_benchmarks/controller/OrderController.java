@@ -1,6 +1,9 @@
 package com.jm.spring_threads_benchmarks.controller;
 
+import com.jm.spring_threads_benchmarks.bulkhead.Bulkhead;
+import com.jm.spring_threads_benchmarks.bulkhead.BulkheadRegistry;
 import com.jm.spring_threads_benchmarks.dto.OrderDto;
+import com.jm.spring_threads_benchmarks.ingest.OrderIngest;
 import com.jm.spring_threads_benchmarks.repository.OrderRepo;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,23 +15,31 @@ import jakarta.validation.Valid;
 @RequestMapping("/orders")
 public class OrderController {
     private final OrderRepo orderRepo;
+    private final OrderIngest ingest;
+    private final Bulkhead reads, writes, report;
 
-    public OrderController(OrderRepo orderRepo) {
+    public OrderController(OrderRepo orderRepo, OrderIngest ingest, BulkheadRegistry bulkheads) {
         this.orderRepo = orderRepo;
+        this.ingest = ingest;
+        this.reads = bulkheads.get("reads");
+        this.writes = bulkheads.get("writes");
+        this.report = bulkheads.get("report");
     }
 
     @GetMapping("/{id}")
     public OrderDto get(@PathVariable long id) {
-        return orderRepo.findById(id);
+        return reads.call(() -> orderRepo.findById(id));
     }
 
     public record CreateOrderRequest(
-            @jakarta.validation.constraints.NotBlank String customer,
+            @jakarta.validation.constraints.NotBlank
+            @jakarta.validation.constraints.Pattern(regexp = "[^\\u0000]*", message = "must not contain NUL")   // Postgres text can't store it
+            String customer,
             @jakarta.validation.constraints.Positive int totalCents) {}
 
     @PostMapping
     public ResponseEntity<OrderDto> create(@Valid @RequestBody CreateOrderRequest req) {
-        long id = orderRepo.create(req.customer(), req.totalCents());
+        long id = writes.call(() -> ingest.create(req.customer(), req.totalCents()));
         return ResponseEntity
                 .created(java.net.URI.create("/orders/" + id))
                 .body(new OrderDto(id, req.customer(), req.totalCents()));
@@ -36,7 +47,7 @@ public class OrderController {
 
     @GetMapping("/report/slow/{ms}")
     public ResponseEntity<String> slow(@jakarta.validation.constraints.Min(0) @PathVariable long ms) {
-        orderRepo.slowQueryMillis(ms);
+        report.run(() -> orderRepo.slowQueryMillis(ms));
         return ResponseEntity.ok("slept " + ms + " ms");
     }
 }
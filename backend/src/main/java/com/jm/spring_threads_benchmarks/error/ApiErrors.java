@@ -1,7 +1,11 @@
 package com.jm.spring_threads_benchmarks.error;
 
+import com.jm.spring_threads_benchmarks.bulkhead.BulkheadFullException;
+import com.jm.spring_threads_benchmarks.ingest.JournalFullException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.*;
@@ -14,6 +18,8 @@ import java.util.*;
 @RestControllerAdvice
 class ApiErrors {
 
+    private static final Logger log = LoggerFactory.getLogger(ApiErrors.class);
+
     record ErrorBody(OffsetDateTime timestamp, int status, String error, String message, String path, Object details) {}
 
     private ResponseEntity<ErrorBody> build(HttpStatus status, String message, String path, Object details) {
@@ -57,9 +63,25 @@ class ApiErrors {
         return build(HttpStatus.GATEWAY_TIMEOUT, "Operation timed out", req.getRequestURI(), null);
     }
 
+    // 503 when a bulkhead is saturated: fail fast instead of queueing on the shared pool
+    @ExceptionHandler(BulkheadFullException.class)
+    ResponseEntity<ErrorBody> bulkheadFull(HttpServletRequest req, BulkheadFullException ex) {
+        return build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), req.getRequestURI(),
+                Map.of("bulkhead", ex.getBulkhead()));
+    }
+
+    // 503 when the write-behind journal hit its backlog cap (bench.ingest.journal.max-segments)
+    @ExceptionHandler(JournalFullException.class)
+    ResponseEntity<ErrorBody> journalFull(HttpServletRequest req, JournalFullException ex) {
+        return build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), req.getRequestURI(),
+                Map.of("journalSegments", ex.getSegments()));
+    }
+
     // Fallback 500
     @ExceptionHandler(Exception.class)
     ResponseEntity<ErrorBody> generic(HttpServletRequest req, Exception ex) {
+        // same template for every 500 so ErrorLogSampler can rate-limit bursts
+        log.error("Unhandled error on {} {}", req.getMethod(), req.getRequestURI(), ex);
         return build(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error", req.getRequestURI(), null);
     }
 }
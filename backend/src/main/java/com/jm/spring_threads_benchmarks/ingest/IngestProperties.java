@@ -0,0 +1,30 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties("bench.ingest")
+public class IngestProperties {
+
+    private String mode = "sync";                              // sync = insert per request | journal = write-behind
+    private Journal journal = new Journal();
+
+    @Data
+    @NoArgsConstructor
+    public static class Journal {
+        private String dir = "/data/journal";
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        private int maxSegments = 64;                          // backlog cap (64 x 64MB); beyond it POST /orders gets 503
+        private Duration fsyncInterval = Duration.ZERO;        // 0 = force before each ack (group commit); > 0 = ack from page cache
+        private int idBlock = 1000;                            // ids taken from orders_id_seq per round trip
+        private int drainBatch = 1000;                         // rows per multi-row insert
+        private Duration drainIdle = Duration.ofMillis(20);    // drainer sleep when the journal is empty
+        private Duration shutdownDrain = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,426 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only order journal on fixed-size memory-mapped segment files ({@code <index>.seg}).
+ * <p>
+ * Record: {@code [int payloadLength][int crc32c][long id][long appendedAtMillis][int totalCents][customer utf-8]};
+ * a zero length marks the unused rest of a segment. Positions are logical byte offsets
+ * ({@code segment * segmentBytes + offset}), so comparing them orders records.
+ * <p>
+ * {@link #append} only writes into the mapping (visible to the page cache, so it survives a process crash);
+ * {@link #awaitDurable} / {@link #force} msync it, one force covering every record appended so far (group commit).
+ * Readers only see forced records. {@link #checkpoint} persists how far a reader has consumed and deletes
+ * segments behind it; reopening the directory resumes from the checkpoint and drops a torn tail by CRC.
+ * <p>
+ * At most {@code maxSegments} segments exist at a time; an append that needs one more throws
+ * {@link JournalFullException}. New segments are written full of zeros before they are mapped, so a full disk
+ * fails that write instead of raising SIGBUS on a page fault of a sparse mapping later. A background thread
+ * prepares the segment after the one being appended to, so {@link #append} only switches to a ready mapping and
+ * never waits on zero-filling or fsync unless that thread has fallen behind.
+ * <p>
+ * New files only survive a host crash once their directory entry is on disk too, so the directory is fsynced
+ * after a segment is created and after the checkpoint file is renamed into place.
+ */
+public final class Journal implements Closeable {
+
+    static final int HEADER = 8;          // payload length + crc
+    static final int FIXED = 8 + 8 + 4;   // id + appendedAt + totalCents
+
+    private static final String SUFFIX = ".seg";
+    private static final String CHECKPOINT = "checkpoint";
+
+    public record Entry(long id, String customer, int totalCents, long appendedAtMillis) {}
+
+    /** Entries read from {@code from}, and the position right after the last one. */
+    public record Batch(List<Entry> entries, long end) {}
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Map<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();   // not synchronized: callers are virtual threads
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final Condition needSegment = appendLock.newCondition();    // wakes the preparer
+    private final Condition segmentReady = appendLock.newCondition();   // wakes an append waiting for it
+    private final Thread preparer;
+    private volatile IOException prepareFailure;   // last failed preparation, until one succeeds
+    private volatile boolean closed;
+    private volatile long appended;       // end of the last complete record
+    private volatile long durable;        // end of the last forced record
+    private volatile long checkpointed;   // consumed by the reader and persisted
+    private final AtomicLong forces = new AtomicLong();
+    private final long recoveredEntries;
+
+    public Journal(Path dir, int segmentBytes) throws IOException {
+        this(dir, segmentBytes, Integer.MAX_VALUE);
+    }
+
+    public Journal(Path dir, int segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes < HEADER + FIXED + 64) throw new IllegalArgumentException("segment too small: " + segmentBytes);
+        if (maxSegments < 1) throw new IllegalArgumentException("maxSegments must be positive: " + maxSegments);
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.checkpointed = readCheckpoint();
+        this.recoveredEntries = recover();
+        this.durable = appended;
+        this.preparer = Thread.ofPlatform().name("journal-prealloc").daemon().start(this::prepareLoop);
+    }
+
+    // ---- append side ----
+
+    /** Writes one record and returns its end position; pass that to {@link #awaitDurable} before acknowledging. */
+    public long append(Entry e) {
+        byte[] customer = e.customer().getBytes(StandardCharsets.UTF_8);
+        int payload = FIXED + customer.length;
+        if (HEADER + payload > segmentBytes) throw new IllegalArgumentException("entry larger than a segment");
+
+        appendLock.lock();
+        try {
+            long pos = appended;
+            if (offset(pos) + HEADER + payload > segmentBytes) pos = segmentStart(segmentIndex(pos) + 1);   // rest stays zero
+            MappedByteBuffer buf = writableSegment(segmentIndex(pos)).map;
+            if (!segments.containsKey(segmentIndex(pos) + 1) && segments.size() < maxSegments) needSegment.signal();
+            int at = offset(pos);
+
+            var crc = new CRC32C();
+            buf.putLong(at + HEADER, e.id());
+            buf.putLong(at + HEADER + 8, e.appendedAtMillis());
+            buf.putInt(at + HEADER + 16, e.totalCents());
+            buf.put(at + HEADER + FIXED, customer);
+            crc.update(buf.slice(at + HEADER, payload));
+            buf.putInt(at + 4, (int) crc.getValue());
+            buf.putInt(at, payload);          // length last: a reader never sees a half-written record as valid
+
+            appended = pos + HEADER + payload;
+            return appended;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Returns once everything up to {@code position} is on disk, forcing it unless another caller just did. */
+    public void awaitDurable(long position) {
+        if (durable >= position) return;
+        forceLock.lock();
+        try {
+            if (durable < position) force0();
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /** Forces everything appended so far (the background fsync of interval mode). */
+    public void force() {
+        forceLock.lock();
+        try {
+            force0();
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void force0() {
+        long from = durable, to = appended;
+        if (to <= from) return;
+        for (long seg = segmentIndex(from); seg <= segmentIndex(to - 1); seg++) {
+            Segment s = segments.get(seg);
+            if (s == null) continue;          // already drained and deleted
+            int start = seg == segmentIndex(from) ? offset(from) : 0;
+            int end = seg == segmentIndex(to - 1) ? offset(to - 1) + 1 : segmentBytes;
+            s.map.force(start, end - start);
+        }
+        forces.incrementAndGet();
+        durable = to;
+    }
+
+    // ---- read side (single reader) ----
+
+    /** Up to {@code max} forced entries starting at {@code from} (normally {@link #checkpointed()}). */
+    public Batch read(long from, int max) {
+        long limit = durable;
+        List<Entry> out = new ArrayList<>(Math.min(max, 1024));
+        long pos = from;
+        while (pos < limit && out.size() < max) {
+            MappedByteBuffer buf = segment(segmentIndex(pos)).map;
+            int at = offset(pos);
+            int payload = at + HEADER <= segmentBytes ? buf.getInt(at) : 0;
+            if (payload == 0) {               // end of this segment's records
+                pos = segmentStart(segmentIndex(pos) + 1);
+                continue;
+            }
+            out.add(decode(buf, at, payload));
+            pos += HEADER + payload;
+        }
+        return new Batch(out, pos);
+    }
+
+    /** Persists that everything before {@code position} was consumed, and deletes segments entirely behind it. */
+    public void checkpoint(long position) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, Long.toString(position));
+        try (var ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDir(dir);
+        checkpointed = position;
+
+        long keep = segmentIndex(Math.min(position, appended));
+        boolean freed = false;
+        for (var it = segments.entrySet().iterator(); it.hasNext(); ) {
+            var e = it.next();
+            if (e.getKey() >= keep) break;
+            e.getValue().close();
+            Files.deleteIfExists(e.getValue().file);
+            it.remove();
+            freed = true;
+        }
+        if (freed) signal(needSegment);   // room under maxSegments again
+    }
+
+    public long appended()        { return appended; }
+    public long durable()         { return durable; }
+    public long checkpointed()    { return checkpointed; }
+    public long forceCount()      { return forces.get(); }
+    public int segmentCount()     { return segments.size(); }
+    /** Records found after the checkpoint when the journal was opened, i.e. accepted but not yet drained. */
+    public long recoveredEntries() { return recoveredEntries; }
+
+    @Override
+    public void close() {
+        closed = true;
+        preparer.interrupt();
+        try {
+            preparer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+        segments.values().forEach(Segment::close);
+        segments.clear();
+    }
+
+    // ---- recovery ----
+
+    private long readCheckpoint() throws IOException {
+        Path cp = dir.resolve(CHECKPOINT);
+        return Files.exists(cp) ? Long.parseLong(Files.readString(cp).trim()) : -1;
+    }
+
+    /** Maps existing segments and scans from the checkpoint for valid records; sets {@code appended}. */
+    private long recover() throws IOException {
+        List<Long> found;
+        try (Stream<Path> files = Files.list(dir)) {
+            found = files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(0, n.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        if (found.isEmpty()) {
+            long start = Math.max(checkpointed, 0);
+            appended = checkpointed = start;
+            return 0;
+        }
+        if (checkpointed < segmentStart(found.get(0))) checkpointed = segmentStart(found.get(0));
+        for (long idx : found) {
+            if (idx < segmentIndex(checkpointed)) Files.deleteIfExists(segmentFile(idx));   // drained, delete was cut short
+            else segment(idx);
+        }
+
+        long pos = checkpointed, entries = 0;
+        long last = segmentIndex(checkpointed);       // last segment with a record; any after it were only prepared
+        for (var e : segments.entrySet()) if (e.getValue().map.getInt(0) != 0) last = Math.max(last, e.getKey());
+        while (true) {
+            long seg = segmentIndex(pos);
+            Segment s = segments.get(seg);
+            if (s == null) break;
+            int at = offset(pos);
+            int payload = at + HEADER <= segmentBytes ? s.map.getInt(at) : 0;
+            boolean valid = payload >= FIXED && at + HEADER + payload <= segmentBytes && crcMatches(s.map, at, payload);
+            if (valid) {
+                pos += HEADER + payload;
+                entries++;
+            } else if (seg < last) {
+                pos = segmentStart(seg + 1);
+            } else {
+                zeroFrom(s.map, at);          // torn tail: clear it so later appends never meet stale bytes
+                break;
+            }
+        }
+        appended = pos;
+        return entries;
+    }
+
+    private static boolean crcMatches(MappedByteBuffer buf, int at, int payload) {
+        var crc = new CRC32C();
+        crc.update(buf.slice(at + HEADER, payload));
+        return (int) crc.getValue() == buf.getInt(at + 4);
+    }
+
+    private static Entry decode(MappedByteBuffer buf, int at, int payload) {
+        byte[] customer = new byte[payload - FIXED];
+        buf.get(at + HEADER + FIXED, customer);
+        return new Entry(buf.getLong(at + HEADER), new String(customer, StandardCharsets.UTF_8),
+                buf.getInt(at + HEADER + 16), buf.getLong(at + HEADER + 8));
+    }
+
+    private void zeroFrom(MappedByteBuffer buf, int at) {
+        byte[] zeros = new byte[Math.min(64 * 1024, segmentBytes)];
+        for (int i = at; i < segmentBytes; i += zeros.length)
+            buf.put(i, zeros, 0, Math.min(zeros.length, segmentBytes - i));
+        buf.force();
+    }
+
+    // ---- segments ----
+
+    private long segmentIndex(long pos) { return pos / segmentBytes; }
+    private int offset(long pos)        { return (int) (pos % segmentBytes); }
+    private long segmentStart(long idx) { return idx * segmentBytes; }
+
+    private Path segmentFile(long idx) { return dir.resolve(String.format("%019d%s", idx, SUFFIX)); }
+
+    /** The segment to append to; waits for the preparer if it is behind. Called with the append lock held. */
+    private Segment writableSegment(long idx) {
+        Segment s;
+        while ((s = segments.get(idx)) == null) {
+            if (segments.size() >= maxSegments) throw new JournalFullException(segments.size(), null);
+            if (prepareFailure != null) throw new JournalFullException(segments.size(), prepareFailure);   // typically no space
+            needSegment.signal();
+            segmentReady.awaitUninterruptibly();
+        }
+        return s;
+    }
+
+    /** The segment the preparer should create next: the current one or the one after it, within {@code maxSegments}. */
+    private long nextToPrepare() {
+        long current = segmentIndex(appended);
+        if (segments.size() >= maxSegments) return -1;
+        if (!segments.containsKey(current)) return current;
+        if (!segments.containsKey(current + 1)) return current + 1;
+        return -1;
+    }
+
+    private void prepareLoop() {
+        while (!closed) {
+            long next;
+            appendLock.lock();
+            try {
+                while ((next = nextToPrepare()) < 0) needSegment.await();
+            } catch (InterruptedException e) {
+                return;                               // closed
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                Segment s = new Segment(dir, segmentFile(next), segmentBytes);   // zero-fill and fsync off the append lock
+                appendLock.lock();
+                try {
+                    segments.put(next, s);
+                    prepareFailure = null;
+                    segmentReady.signalAll();
+                } finally {
+                    appendLock.unlock();
+                }
+            } catch (IOException e) {
+                prepareFailure = e;
+                signal(segmentReady);
+                try {
+                    Thread.sleep(100);                // retry: the drainer may free space
+                } catch (InterruptedException closing) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void signal(Condition c) {
+        appendLock.lock();
+        try {
+            c.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment segment(long idx) {
+        return segments.computeIfAbsent(idx, i -> {
+            try {
+                return new Segment(dir, segmentFile(i), segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /** fsync on a directory persists the entries in it (Linux; other platforms may not allow opening one). */
+    static void syncDir(Path dir) throws IOException {
+        try (var ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        }
+    }
+
+    private static final class Segment {
+        final Path file;
+        final FileChannel channel;
+        final MappedByteBuffer map;
+
+        Segment(Path dir, Path file, int size) throws IOException {
+            this.file = file;
+            boolean created = !Files.exists(file) || Files.size(file) < size;   // or cut short while being prepared
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (created) {
+                try {
+                    allocate(channel, size);
+                    channel.force(true);      // the blocks and the new length
+                    syncDir(dir);             // the new name
+                } catch (IOException e) {
+                    channel.close();
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+            }
+            this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        /** Writes zeros over the whole file, so its blocks exist before the mapping touches them. */
+        private static void allocate(FileChannel ch, int size) throws IOException {
+            ByteBuffer zeros = ByteBuffer.allocateDirect(Math.min(size, 1 << 20));
+            for (long pos = 0; pos < size; ) {
+                zeros.clear().limit((int) Math.min(zeros.capacity(), size - pos));
+                pos += ch.write(zeros, pos);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();              // the mapping stays valid until GC; nothing touches it after this
+            } catch (IOException ignored) {
+                // nothing left to flush: the mapping was forced
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import lombok.Getter;
+
+@Getter
+public class JournalFullException extends RuntimeException {
+    private final int segments;
+
+    public JournalFullException(int segments, Throwable cause) {
+        super("Journal is full (" + segments + " segments not yet drained)", cause);
+        this.segments = segments;
+    }
+}
@@ -0,0 +1,247 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jm.spring_threads_benchmarks.dto.OrderDto;
+import com.jm.spring_threads_benchmarks.repository.OrderRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind {@code POST /orders}: takes an id from a block reserved on {@code orders_id_seq}, appends the
+ * order to the {@link Journal} and acknowledges once it is durable there. A drainer thread inserts journalled
+ * orders in batches and checkpoints after each commit; after a restart it replays from the checkpoint
+ * ({@code on conflict do nothing} makes replays idempotent).
+ * <p>
+ * Durability window: with {@code fsync-interval=0} every ack waits for an msync shared by all concurrent
+ * appends (new segment files and their directory entry are fsynced when created), so acknowledged orders
+ * survive a host crash. With an interval, acks come from the page cache and up to one interval of orders is lost
+ * on power loss or kernel crash (a JVM crash alone loses nothing).
+ * <p>
+ * The backlog is capped by {@code max-segments}: once Postgres falls that far behind, new orders are refused
+ * ({@link JournalFullException}, 503) instead of filling the disk. A batch Postgres rejects as data (e.g. a value
+ * the column can't hold) is retried row by row; the rows it still rejects go to {@code dead-letter.jsonl} next to
+ * the segments, so one bad order can't stall the drain. Connection failures keep the batch and retry.
+ */
+@Component
+@ConditionalOnProperty(name = "bench.ingest.mode", havingValue = "journal")
+@EnableConfigurationProperties(IngestProperties.class)
+class JournalIngest implements OrderIngest, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalIngest.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    static final String DEAD_LETTERS = "dead-letter.jsonl";
+
+    private final OrderRepo orderRepo;
+    private final IngestProperties.Journal props;
+    private final Journal journal;
+    private final Path deadLetters;
+
+    private final ReentrantLock idLock = new ReentrantLock();
+    private final ArrayDeque<Long> ids = new ArrayDeque<>();
+
+    private final AtomicLong backlog = new AtomicLong();       // acknowledged, not yet in Postgres
+    private volatile long oldestPendingMillis;                // appendedAt of the next entry to drain
+    private volatile boolean running = true;
+    private Thread drainer, flusher;
+
+    private final Timer appendTimer, drainTimer;
+    private final Counter drained, drainFailures, rejected, deadLettered;
+
+    JournalIngest(OrderRepo orderRepo, IngestProperties props, MeterRegistry mr) throws IOException {
+        this.orderRepo = orderRepo;
+        this.props = props.getJournal();
+        this.journal = new Journal(Path.of(this.props.getDir()), (int) this.props.getSegmentSize().toBytes(),
+                this.props.getMaxSegments());
+        this.deadLetters = Path.of(this.props.getDir(), DEAD_LETTERS);
+        backlog.set(journal.recoveredEntries());
+        if (journal.recoveredEntries() > 0)
+            log.info("journal: {} orders accepted before the restart are not in Postgres yet; replaying", journal.recoveredEntries());
+
+        this.appendTimer = Timer.builder("ingest.append")
+                .description("POST /orders journal path: id, append and (group-commit) fsync until the ack")
+                .register(mr);
+        this.drainTimer = Timer.builder("ingest.drain.batch").register(mr);
+        this.drained = Counter.builder("ingest.drained").description("Orders moved from the journal to Postgres").register(mr);
+        this.drainFailures = Counter.builder("ingest.drain.failures").register(mr);
+        this.rejected = Counter.builder("ingest.rejected")
+                .description("Orders refused with 503 because the journal reached max-segments").register(mr);
+        this.deadLettered = Counter.builder("ingest.dead.letters")
+                .description("Acknowledged orders Postgres rejected, written to dead-letter.jsonl").register(mr);
+        Gauge.builder("ingest.backlog", backlog, AtomicLong::get)
+                .description("Acknowledged orders not yet inserted").register(mr);
+        Gauge.builder("ingest.backlog.bytes", journal, j -> j.appended() - j.checkpointed())
+                .baseUnit("bytes").register(mr);
+        TimeGauge.builder("ingest.drain.lag", this, TimeUnit.MILLISECONDS, JournalIngest::lagMillis)
+                .description("Age of the oldest acknowledged order not yet in Postgres").register(mr);
+        Gauge.builder("ingest.journal.segments", journal, Journal::segmentCount).register(mr);
+        FunctionCounter.builder("ingest.journal.fsyncs", journal, Journal::forceCount).register(mr);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        drainer = Thread.ofPlatform().name("journal-drainer").daemon().start(this::drainLoop);
+        if (props.getFsyncInterval().isPositive())
+            flusher = Thread.ofPlatform().name("journal-fsync").daemon().start(this::flushLoop);
+    }
+
+    @Override
+    public long create(String customer, int totalCents) {
+        long t0 = System.nanoTime();
+        long id = nextId();
+        long end;
+        try {
+            end = journal.append(new Journal.Entry(id, customer, totalCents, System.currentTimeMillis()));
+        } catch (JournalFullException e) {
+            rejected.increment();
+            throw e;
+        }
+        backlog.incrementAndGet();
+        if (!props.getFsyncInterval().isPositive()) journal.awaitDurable(end);
+        appendTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        return id;
+    }
+
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (ids.isEmpty()) ids.addAll(orderRepo.reserveIds(props.getIdBlock()));   // one round trip per block
+            return ids.poll();
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private double lagMillis() {
+        return backlog.get() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldestPendingMillis);
+    }
+
+    // ---- background ----
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (!drainOnce()) sleep(props.getDrainIdle());
+            } catch (DataAccessException | IOException e) {
+                drainFailures.increment();
+                log.warn("journal drain failed, retrying: {}", e.getMessage());
+                sleep(props.getDrainIdle().multipliedBy(50));
+            } catch (RuntimeException e) {      // a dead drainer would leave POST /orders to fill the journal and 503
+                drainFailures.increment();
+                log.error("journal drain failed unexpectedly, retrying", e);
+                sleep(props.getDrainIdle().multipliedBy(50));
+            }
+        }
+    }
+
+    /** Inserts the next batch and checkpoints it; false when nothing durable is pending. */
+    private boolean drainOnce() throws IOException {
+        var batch = journal.read(journal.checkpointed(), props.getDrainBatch());
+        if (batch.entries().isEmpty()) {
+            if (batch.end() > journal.checkpointed()) journal.checkpoint(batch.end());   // crossed empty segment tails
+            return false;
+        }
+        oldestPendingMillis = batch.entries().get(0).appendedAtMillis();
+
+        var rows = batch.entries().stream().map(e -> new OrderDto(e.id(), e.customer(), e.totalCents())).toList();
+        int inserted = rows.size();
+        try {
+            drainTimer.record(() -> orderRepo.insertAll(rows));
+        } catch (DataIntegrityViolationException e) {
+            inserted = insertOneByOne(rows);
+        }
+        journal.checkpoint(batch.end());
+        backlog.addAndGet(-rows.size());
+        drained.increment(inserted);
+        return true;
+    }
+
+    /** Retries a rejected batch row by row and dead-letters the rows Postgres still refuses; returns rows inserted. */
+    private int insertOneByOne(List<OrderDto> rows) throws IOException {
+        int inserted = 0;
+        for (OrderDto row : rows) {
+            try {
+                orderRepo.insertAll(List.of(row));
+                inserted++;
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(row, e);
+            }
+        }
+        return inserted;
+    }
+
+    private void deadLetter(OrderDto row, DataIntegrityViolationException e) throws IOException {
+        var line = JSON.writeValueAsString(new DeadLetter(row.id(), row.customer(), row.totalCents(),
+                e.getMostSpecificCause().getMessage(), Instant.now().toString())) + "\n";
+        boolean created = !Files.exists(deadLetters);
+        try (var ch = FileChannel.open(deadLetters,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            ch.force(true);   // before the checkpoint moves past the row
+        }
+        if (created) Journal.syncDir(deadLetters.getParent());
+        deadLettered.increment();
+        log.error("journal: order {} rejected by Postgres, moved to {}: {}", row.id(), deadLetters, e.getMostSpecificCause().getMessage());
+    }
+
+    record DeadLetter(long id, String customer, int totalCents, String error, String at) {}
+
+    private void flushLoop() {
+        while (running) {
+            sleep(props.getFsyncInterval());
+            journal.force();
+        }
+    }
+
+    private static void sleep(Duration d) {
+        try {
+            Thread.sleep(d);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        if (flusher != null) flusher.join();
+        drainer.join();
+
+        journal.force();   // acks in interval mode may still sit in the page cache only
+        long deadline = System.nanoTime() + props.getShutdownDrain().toNanos();
+        try {
+            while (System.nanoTime() < deadline && drainOnce()) { }
+        } catch (RuntimeException | IOException e) {
+            log.warn("journal: final drain stopped ({}), {} orders stay journalled for the next start", e.getMessage(), backlog.get());
+        } finally {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+/**
+ * How {@code POST /orders} persists an order: {@code bench.ingest.mode=sync} inserts it before answering,
+ * {@code journal} appends it to a local journal and inserts it later in batches.
+ */
+public interface OrderIngest {
+
+    /** Stores the order (or makes it durable for later storage) and returns its id. */
+    long create(String customer, int totalCents);
+}
@@ -0,0 +1,22 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import com.jm.spring_threads_benchmarks.repository.OrderRepo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Baseline: one insert per request, acknowledged after the Postgres commit. */
+@Component
+@ConditionalOnProperty(name = "bench.ingest.mode", havingValue = "sync", matchIfMissing = true)
+public class SyncIngest implements OrderIngest {
+
+    private final OrderRepo orderRepo;
+
+    public SyncIngest(OrderRepo orderRepo) {
+        this.orderRepo = orderRepo;
+    }
+
+    @Override
+    public long create(String customer, int totalCents) {
+        return orderRepo.create(customer, totalCents);
+    }
+}
@@ -0,0 +1,64 @@
+package com.jm.spring_threads_benchmarks.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limits repetitive WARN/ERROR logs before the event is even built: at most
+ * {@code allowedPerWindow} events per (logger, message template, exception type) per window.
+ * Runs in the caller thread, so it stays lock-free; anything below WARN passes untouched.
+ */
+public class ErrorLogSampler extends TurboFilter {
+
+    private int allowedPerWindow = 5;
+    private long windowMillis = 10_000;
+    private int maxKeys = 1_000;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+
+    private static final class Window {
+        final AtomicLong start = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || level == null || format == null || !level.isGreaterOrEqual(Level.WARN))
+            return FilterReply.NEUTRAL;
+
+        if (windows.size() > maxKeys) windows.clear();   // crude bound against unbounded templates
+        // log.error("msg {}", arg, ex) arrives with the throwable still in params
+        if (t == null && params != null && params.length > 0 && params[params.length - 1] instanceof Throwable last)
+            t = last;
+        String key = logger.getName() + '|' + format + '|' + (t == null ? "" : t.getClass().getName());
+        Window w = windows.computeIfAbsent(key, k -> new Window());
+
+        long now = System.currentTimeMillis();
+        long start = w.start.get();
+        if (now - start >= windowMillis && w.start.compareAndSet(start, now))
+            w.count.set(0);
+
+        if (w.count.incrementAndGet() <= allowedPerWindow)
+            return FilterReply.NEUTRAL;
+
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    public long getSuppressedCount() { return suppressed.sum(); }
+
+    public void setAllowedPerWindow(int allowedPerWindow) { this.allowedPerWindow = allowedPerWindow; }
+
+    public void setWindowMillis(long windowMillis) { this.windowMillis = windowMillis; }
+
+    public void setMaxKeys(int maxKeys) { this.maxKeys = maxKeys; }
+}
@@ -0,0 +1,42 @@
+package com.jm.spring_threads_benchmarks.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the async appender and error sampler configured in {@code logback-spring.xml}:
+ * {@code logging.async.queue.depth}, {@code logging.async.dropped} and {@code logging.sampled.out}.
+ */
+@Component
+class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry mr) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext ctx)) return;
+
+        ctx.getTurboFilterList().stream()
+                .filter(ErrorLogSampler.class::isInstance)
+                .map(ErrorLogSampler.class::cast)
+                .forEach(s -> FunctionCounter.builder("logging.sampled.out", s, ErrorLogSampler::getSuppressedCount)
+                        .description("WARN/ERROR events suppressed by the per-template rate limit")
+                        .register(mr));
+
+        var root = ctx.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.iteratorForAppenders().forEachRemaining(a -> {
+            if (!(a instanceof MeteredAsyncAppender async)) return;
+            Gauge.builder("logging.async.queue.depth", async, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                    .tag("appender", async.getName()).register(mr);
+            Gauge.builder("logging.async.queue.capacity", async, MeteredAsyncAppender::getQueueSize)
+                    .tag("appender", async.getName()).register(mr);
+            FunctionCounter.builder("logging.async.dropped", async, MeteredAsyncAppender::getDroppedCount)
+                    .tag("appender", async.getName())
+                    .description("Events discarded because the async queue was full or over the discarding threshold")
+                    .register(mr);
+        });
+    }
+}
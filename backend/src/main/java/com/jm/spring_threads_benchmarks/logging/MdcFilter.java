@@ -0,0 +1,42 @@
+package com.jm.spring_threads_benchmarks.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Puts a per-request {@code requestId} into the MDC (incoming {@code X-Request-Id} or a random one).
+ * MDC is thread-local, which is per request on both platform and virtual threads; it is always
+ * cleared so pooled platform threads don't leak ids across requests.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class MdcFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "X-Request-Id";
+    static final String KEY = "requestId";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String id = req.getHeader(HEADER);
+        if (id == null || id.isEmpty() || id.length() > 64)
+            id = Long.toHexString(ThreadLocalRandom.current().nextLong());   // no SecureRandom on the hot path
+
+        MDC.put(KEY, id);
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            MDC.remove(KEY);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.jm.spring_threads_benchmarks.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it throws away. With {@code neverBlock=true} a full
+ * queue drops silently and INFO/DEBUG are discarded above the discarding threshold; both are
+ * counted here so the loss is visible in metrics instead of in latency.
+ * The check races with the worker draining the queue, so the count is approximate.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 && isNeverBlock()
+                || remaining < getDiscardingThreshold() && isDiscardable(event)) {
+            dropped.increment();
+        }
+        super.append(event);
+    }
+
+    public long getDroppedCount() { return dropped.sum(); }
+}
@@ -0,0 +1,95 @@
+package com.jm.spring_threads_benchmarks.pool;
+
+/**
+ * Decides the next {@code maximumPoolSize} from one interval's pool sample. Pure, so the controller
+ * loop stays trivial and the policy is testable on synthetic samples.
+ * <ul>
+ *   <li>up: callers waited for a connection (pending > 0, mean acquire above target) and the cap allows it;</li>
+ *   <li>revert: the previous step up bought less than {@code minGain} throughput while connection hold time
+ *       (query latency seen from the pool) rose by more than {@code latencyTolerance}, i.e. Postgres is the
+ *       limit and more connections only add contention; the smaller size becomes the learned cap;</li>
+ *   <li>down: no waiters and utilization under {@code idleUtilization}; one step at a time.</li>
+ * </ul>
+ * Every change is followed by {@code cooldown} intervals of holding, so a step is judged on settled numbers.
+ * A learned cap is kept for at least {@code ceilingHold} intervals, and after that until throughput or the number of
+ * waiters moves materially away from what it was learned at; an unchanged load never re-probes the size it
+ * already reverted from.
+ */
+final class AutosizePolicy {
+
+    private AutosizePolicy() {}
+
+    /**
+     * One interval of pool metrics.
+     * @param size        current maximumPoolSize
+     * @param throughput  connections returned per second (≈ DB calls completed)
+     * @param acquireMs   mean connection acquire time over the interval
+     * @param usageMs     mean connection hold time over the interval
+     */
+    record Sample(int size, int active, int pending, double acquireMs, double usageMs, double throughput) {}
+
+    /**
+     * Controller memory between intervals.
+     * @param beforeStepUp sample taken just before the last step up, while that step is being judged
+     * @param learnedAt    sample the current cap was learned from; null while the cap is {@code max}
+     */
+    record State(int cooldown, int ceiling, int ceilingHold, Sample beforeStepUp, Sample learnedAt) {
+        static State initial(int max) { return new State(0, max, 0, null, null); }
+    }
+
+    enum Action { HOLD, UP, DOWN, REVERT }
+
+    record Decision(Action action, int size, String reason, State next) {}
+
+    static Decision decide(PoolAutosizeProperties cfg, State state, Sample s) {
+        Sample learned = state.learnedAt();
+        if (learned != null && state.ceilingHold() == 0 && loadMoved(cfg, learned, s)) learned = null;   // re-probe
+        int ceiling = learned != null ? state.ceiling() : cfg.getMax();
+        int ceilingHold = Math.max(0, state.ceilingHold() - 1);
+
+        if (state.cooldown() > 0)
+            return hold(s, "cooldown", new State(state.cooldown() - 1, ceiling, ceilingHold, state.beforeStepUp(), learned));
+
+        Sample before = state.beforeStepUp();
+        if (before != null && before.throughput() > 0) {
+            double gain = s.throughput() / before.throughput() - 1;
+            boolean slower = s.usageMs() > before.usageMs() * (1 + cfg.getLatencyTolerance());
+            if (gain < cfg.getMinGain() && slower) {
+                int size = Math.max(cfg.getMin(), before.size());
+                return new Decision(Action.REVERT, size,
+                        String.format("step to %d gained %.0f%% throughput, hold time %.1f -> %.1f ms",
+                                s.size(), gain * 100, before.usageMs(), s.usageMs()),
+                        new State(cfg.getCooldown(), size, cfg.getCeilingHold(), null, before));
+            }
+        }
+
+        if (s.pending() > 0 && s.acquireMs() > cfg.getAcquireTarget().toNanos() / 1e6 && s.size() < ceiling) {
+            int size = Math.min(ceiling, s.size() + cfg.getStepUp());
+            return new Decision(Action.UP, size,
+                    String.format("%d waiting, acquire %.1f ms", s.pending(), s.acquireMs()),
+                    new State(cfg.getCooldown(), ceiling, ceilingHold, s, learned));
+        }
+
+        if (s.pending() == 0 && s.active() < s.size() * cfg.getIdleUtilization() && s.size() > cfg.getMin()) {
+            int size = Math.max(cfg.getMin(), s.size() - cfg.getStepDown());
+            return new Decision(Action.DOWN, size,
+                    String.format("%d of %d active", s.active(), s.size()),
+                    new State(cfg.getCooldown(), ceiling, ceilingHold, null, learned));
+        }
+
+        return hold(s, "steady", new State(0, ceiling, ceilingHold, null, learned));
+    }
+
+    /** Throughput off by more than {@code minGain}, or waiters up by more than {@code latencyTolerance}, since the cap was learned. */
+    private static boolean loadMoved(PoolAutosizeProperties cfg, Sample learned, Sample s) {
+        boolean throughput = learned.throughput() > 0
+                ? Math.abs(s.throughput() / learned.throughput() - 1) > cfg.getMinGain()
+                : s.throughput() > 0;
+        boolean waiters = s.pending() > learned.pending() * (1 + cfg.getLatencyTolerance()) + 1;
+        return throughput || waiters;
+    }
+
+    private static Decision hold(Sample s, String reason, State next) {
+        return new Decision(Action.HOLD, s.size(), reason, next);
+    }
+}
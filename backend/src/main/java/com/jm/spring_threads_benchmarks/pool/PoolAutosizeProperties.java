@@ -0,0 +1,27 @@
+package com.jm.spring_threads_benchmarks.pool;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties("bench.pool.autosize")
+public class PoolAutosizeProperties {
+
+    private boolean enabled = false;
+    private int min = 4;                              // bounds for maximumPoolSize
+    private int max = 64;
+    private Duration interval = Duration.ofSeconds(5);
+    private int stepUp = 2;
+    private int stepDown = 1;
+    private Duration acquireTarget = Duration.ofMillis(5);   // mean acquire above this with waiters = pool too small
+    private double idleUtilization = 0.5;             // active / size below this with no waiters = pool too large
+    private double minGain = 0.05;                    // a step up must raise throughput by 5%...
+    private double latencyTolerance = 0.2;            // ...or at least not slow queries by more than 20%
+    private int cooldown = 1;                         // intervals to hold after any change
+    private int ceilingHold = 12;                     // min intervals a reverted size stays the cap; then until the load moves
+    private Duration idleTimeout = Duration.ofSeconds(30);   // lets Hikari retire connections above a lowered size
+}
@@ -0,0 +1,140 @@
+package com.jm.spring_threads_benchmarks.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runtime {@code maximumPoolSize} controller for the main Hikari pool ({@code bench.pool.autosize.enabled}).
+ * Every interval it samples waiters/active from {@link com.zaxxer.hikari.HikariPoolMXBean} and the interval's
+ * mean acquire and hold (usage) time from the {@code hikaricp.connections.*} timers, asks {@link AutosizePolicy}
+ * for a size within [min, max] and applies it through {@link com.zaxxer.hikari.HikariConfigMXBean}.
+ * <p>
+ * Each change is logged as a {@code pool.resize} event (key-values land in the JSON log) and counted in
+ * {@code pool.autosize.decisions{action}}; {@code pool.autosize.target} is the current size.
+ * Shrinking is lazy: Hikari retires idle connections above the new size after {@code idle-timeout}.
+ */
+@Component
+@ConditionalOnProperty(name = "bench.pool.autosize.enabled", havingValue = "true")
+@EnableConfigurationProperties(PoolAutosizeProperties.class)
+class PoolAutosizer implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolAutosizer.class);
+
+    private final PoolAutosizeProperties cfg;
+    private final DataSource dataSource;
+    private final MeterRegistry mr;
+    private final AtomicInteger target = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("pool-autosizer").daemon().factory());
+
+    private HikariDataSource hikari;
+    private AutosizePolicy.State state;
+    private long lastNanos, lastAcquireCount, lastUsageCount;
+    private double lastAcquireMs, lastUsageMs;     // cumulative totals at the previous sample
+
+    PoolAutosizer(PoolAutosizeProperties cfg, DataSource dataSource, MeterRegistry mr) {
+        if (cfg.getMin() < 1 || cfg.getMax() < cfg.getMin())
+            throw new IllegalArgumentException("bench.pool.autosize: need 1 <= min <= max");
+        this.cfg = cfg;
+        this.dataSource = dataSource;
+        this.mr = mr;
+        Gauge.builder("pool.autosize.target", target, AtomicInteger::get)
+                .description("maximumPoolSize chosen by the autosizer").register(mr);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        hikari = dataSource.unwrap(HikariDataSource.class);   // the pool may sit behind the JDBC observation proxy
+        var config = hikari.getHikariConfigMXBean();
+        int start = Math.clamp(config.getMaximumPoolSize(), cfg.getMin(), cfg.getMax());
+        config.setMinimumIdle(cfg.getMin());
+        config.setIdleTimeout(cfg.getIdleTimeout().toMillis());
+        config.setMaximumPoolSize(start);
+        target.set(start);
+        state = AutosizePolicy.State.initial(cfg.getMax());
+
+        long every = cfg.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::tick, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            var pool = hikari.getHikariPoolMXBean();
+            if (pool == null) return;                // not started yet (lazy init)
+            var sample = sample(pool.getActiveConnections(), pool.getThreadsAwaitingConnection());
+            if (sample == null) return;
+
+            var d = AutosizePolicy.decide(cfg, state, sample);
+            state = d.next();
+            if (d.action() == AutosizePolicy.Action.HOLD) return;
+
+            hikari.getHikariConfigMXBean().setMaximumPoolSize(d.size());
+            target.set(d.size());
+            Counter.builder("pool.autosize.decisions")
+                    .tag("action", d.action().name().toLowerCase())
+                    .register(mr).increment();
+            log.atInfo()
+                    .addKeyValue("event", "pool.resize")
+                    .addKeyValue("action", d.action().name().toLowerCase())
+                    .addKeyValue("from", sample.size())
+                    .addKeyValue("to", d.size())
+                    .log("pool {} {} -> {}: {}", d.action().name().toLowerCase(), sample.size(), d.size(), d.reason());
+        } catch (RuntimeException e) {
+            log.warn("pool autosizer tick failed: {}", e.getMessage());   // keep the schedule alive
+        }
+    }
+
+    /** Turns the cumulative Hikari timers into this interval's means; null on the first call. */
+    private AutosizePolicy.Sample sample(int active, int pending) {
+        Timer acquire = timer("hikaricp.connections.acquire");
+        Timer usage = timer("hikaricp.connections.usage");
+        if (acquire == null || usage == null) return null;
+
+        long now = System.nanoTime();
+        long acquireCount = acquire.count(), usageCount = usage.count();
+        double acquireMs = acquire.totalTime(TimeUnit.MILLISECONDS), usageMs = usage.totalTime(TimeUnit.MILLISECONDS);
+        boolean first = lastNanos == 0;
+
+        double seconds = (now - lastNanos) / 1e9;
+        long acquires = acquireCount - lastAcquireCount, uses = usageCount - lastUsageCount;
+        var s = new AutosizePolicy.Sample(
+                hikari.getHikariConfigMXBean().getMaximumPoolSize(), active, pending,
+                acquires > 0 ? (acquireMs - lastAcquireMs) / acquires : 0,
+                uses > 0 ? (usageMs - lastUsageMs) / uses : 0,
+                uses / seconds);
+
+        lastNanos = now;
+        lastAcquireCount = acquireCount;
+        lastUsageCount = usageCount;
+        lastAcquireMs = acquireMs;
+        lastUsageMs = usageMs;
+        return first ? null : s;
+    }
+
+    private Timer timer(String name) {
+        return Search.in(mr).name(name).tag("pool", hikari.getPoolName()).timer();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
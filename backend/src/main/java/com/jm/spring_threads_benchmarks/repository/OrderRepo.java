@@ -1,5 +1,6 @@
 package com.jm.spring_threads_benchmarks.repository;
 
+import com.jm.spring_threads_benchmarks.bulkhead.BulkheadRegistry;
 import com.jm.spring_threads_benchmarks.dto.OrderDto;
 import io.micrometer.observation.annotation.Observed;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -9,12 +10,18 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 import java.util.Objects;
 
 @Repository
 public class OrderRepo {
     private final JdbcTemplate jdbc;
-    public OrderRepo(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+    private final JdbcTemplate reportJdbc;   // dedicated pool when the "report" bulkhead asks for one
+
+    public OrderRepo(JdbcTemplate jdbc, BulkheadRegistry bulkheads) {
+        this.jdbc = jdbc;
+        this.reportJdbc = bulkheads.jdbc("report", jdbc);
+    }
 
     @Observed(
             name = "db.find_by_id",
@@ -55,6 +62,39 @@ public class OrderRepo {
         return Objects.requireNonNull(kh.getKey(), "no generated id").longValue();
     }
 
+    /** {@code n} fresh ids from the orders sequence in one round trip (write-behind ingestion hands them out). */
+    @Observed(
+            name = "db.reserve_ids",
+            contextualName = "orderRepo.reserveIds",
+            lowCardinalityKeyValues = {"op","nextval","table","orders"}
+    )
+    public List<Long> reserveIds(int n) {
+        return jdbc.queryForList(
+                "select nextval(pg_get_serial_sequence('orders', 'id')) from generate_series(1, ?)",
+                Long.class, n);
+    }
+
+    /**
+     * Inserts orders with their ids already assigned, as one batch. Rows whose id exists are skipped,
+     * so replaying a batch after a crash is harmless. With {@code reWriteBatchedInserts} the driver sends
+     * it as multi-row inserts.
+     */
+    @Observed(
+            name = "db.insert_batch",
+            contextualName = "orderRepo.insertAll",
+            lowCardinalityKeyValues = {"op","insert","table","orders"}
+    )
+    public void insertAll(List<OrderDto> orders) {
+        jdbc.batchUpdate(
+                "insert into orders(id, customer, total_cents) values (?, ?, ?) on conflict (id) do nothing",
+                orders, orders.size(),
+                (ps, o) -> {
+                    ps.setLong(1, o.id());
+                    ps.setString(2, o.customer());
+                    ps.setInt(3, o.totalCents());
+                });
+    }
+
     @Observed(
             name = "db.slow_query",
             contextualName = "orderRepo.slowQueryMillis",
@@ -62,7 +102,7 @@ public class OrderRepo {
     )
     public void slowQueryMillis(long ms) {
         double seconds = ms / 1000.0;
-        jdbc.execute("select pg_sleep(?::double precision)", (PreparedStatement ps) -> {
+        reportJdbc.execute("select pg_sleep(?::double precision)", (PreparedStatement ps) -> {
             ps.setDouble(1, seconds);
             ps.execute();
             return null;
@@ -0,0 +1,76 @@
+package com.jm.spring_threads_benchmarks.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-level meters that mean the same on every engine (the `engine` common tag tells them apart):
+ * <ul>
+ *   <li>{@code server.connections.active}: established TCP connections on the server port</li>
+ *   <li>{@code server.accept.queue}: connections the kernel accepted that wait for the engine's accept()</li>
+ *   <li>{@code server.requests.active}: requests inside the app (filter to response)</li>
+ *   <li>{@code server.bytes.received} / {@code server.bytes.sent}: body bytes</li>
+ * </ul>
+ * Socket numbers come from /proc (Linux only, -1 elsewhere) and are cached for a second, since every gauge
+ * would otherwise re-read the table on each scrape.
+ */
+@Component
+public class ServerMetrics implements MeterBinder, ApplicationListener<WebServerInitializedEvent> {
+
+    private static final List<Path> TABLES = List.of(Path.of("/proc/net/tcp"), Path.of("/proc/net/tcp6"));
+    private static final long CACHE_NANOS = 1_000_000_000L;
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private volatile int port = -1;
+    private volatile SocketStats sockets = SocketStats.UNAVAILABLE;
+    private volatile long readAt;
+    private volatile Counter received, sent;   // null until bound
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("server.connections.active", this, m -> m.sockets().established())
+                .description("Established TCP connections on the server port").register(registry);
+        Gauge.builder("server.accept.queue", this, m -> m.sockets().acceptQueue())
+                .description("Connections accepted by the kernel, waiting for the engine's accept()").register(registry);
+        Gauge.builder("server.requests.active", activeRequests, AtomicInteger::get)
+                .description("Requests currently inside the application").register(registry);
+        received = Counter.builder("server.bytes.received").baseUnit("bytes").register(registry);
+        sent = Counter.builder("server.bytes.sent").baseUnit("bytes").register(registry);
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if ("management".equals(event.getApplicationContext().getServerNamespace())) return;
+        port = event.getWebServer().getPort();
+    }
+
+    void requestStarted(long bodyBytes) {
+        activeRequests.incrementAndGet();
+        Counter c = received;
+        if (c != null && bodyBytes > 0) c.increment(bodyBytes);
+    }
+
+    void requestFinished(long bodyBytes) {
+        activeRequests.decrementAndGet();
+        Counter c = sent;
+        if (c != null && bodyBytes > 0) c.increment(bodyBytes);
+    }
+
+    private SocketStats sockets() {
+        long now = System.nanoTime();
+        if (port > 0 && now - readAt > CACHE_NANOS) {
+            sockets = SocketStats.read(port, TABLES);
+            readAt = now;
+        }
+        return sockets;
+    }
+}
@@ -0,0 +1,94 @@
+package com.jm.spring_threads_benchmarks.server;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Feeds {@link ServerMetrics} from the servlet layer, so Tomcat, Jetty and Undertow are measured at the
+ * same point. Request bytes come from Content-Length; response bytes are counted as they are written.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)   // right after MdcFilter
+class ServerMetricsFilter extends OncePerRequestFilter {
+
+    private final ServerMetrics metrics;
+
+    ServerMetricsFilter(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        var counting = new CountingResponse(res);
+        metrics.requestStarted(req.getContentLengthLong());
+        try {
+            chain.doFilter(req, counting);
+        } finally {
+            counting.drainWriter();
+            metrics.requestFinished(counting.bytes);
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        long bytes;
+        private ServletOutputStream out;
+        private PrintWriter writer;
+        private boolean draining;
+
+        CountingResponse(HttpServletResponse res) { super(res); }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                out = new ServletOutputStream() {
+                    @Override public void write(int b) throws IOException { delegate.write(b); bytes++; }
+                    @Override public void write(byte[] b, int off, int len) throws IOException { delegate.write(b, off, len); bytes += len; }
+                    @Override public void flush() throws IOException { if (!draining) delegate.flush(); }
+                    @Override public void close() throws IOException { delegate.close(); }
+                    @Override public boolean isReady() { return delegate.isReady(); }
+                    @Override public void setWriteListener(WriteListener l) { delegate.setWriteListener(l); }
+                };
+            }
+            return out;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            return writer;
+        }
+
+        /**
+         * The container never sees this writer, so chars still in its encoder would be lost. Push them into the
+         * container's buffer without flushing it, which would commit the response (and rule out an error page).
+         */
+        void drainWriter() {
+            if (writer == null) return;
+            draining = true;
+            writer.flush();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            super.flushBuffer();
+        }
+    }
+}
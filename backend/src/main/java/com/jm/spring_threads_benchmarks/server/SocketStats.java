@@ -0,0 +1,57 @@
+package com.jm.spring_threads_benchmarks.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Kernel view of the server port, read from {@code /proc/net/tcp} and {@code tcp6}: the same numbers
+ * whichever engine owns the socket. {@code acceptQueue} is what the kernel holds for the listener
+ * before the engine calls accept(); it never shows up in request timers or traces.
+ */
+record SocketStats(int established, int acceptQueue) {
+
+    static final SocketStats UNAVAILABLE = new SocketStats(-1, -1);
+
+    private static final String LISTEN = "0A", ESTABLISHED = "01";
+
+    static SocketStats read(int port, List<Path> tables) {
+        int established = 0, queue = 0;
+        boolean any = false;
+        for (Path table : tables) {
+            if (!Files.isReadable(table)) continue;
+            try {
+                SocketStats s = parse(Files.readAllLines(table), port);
+                established += s.established; queue += s.acceptQueue;
+                any = true;
+            } catch (IOException e) {
+                // table vanished mid-read; report what the others had
+            }
+        }
+        return any ? new SocketStats(established, queue) : UNAVAILABLE;
+    }
+
+    /**
+     * One table: header line, then "sl local_address rem_address st tx_queue:rx_queue ...", addresses
+     * as HEXIP:HEXPORT. For a LISTEN socket rx_queue is the current accept queue (its limit is only
+     * visible through inet_diag, e.g. {@code ss -lnt}).
+     */
+    static SocketStats parse(List<String> lines, int port) {
+        int established = 0, queue = 0;
+        for (int i = 1; i < lines.size(); i++) {
+            String[] f = lines.get(i).trim().split("\\s+");
+            if (f.length < 5) continue;
+            String local = f[1];
+            int localPort = Integer.parseInt(local.substring(local.lastIndexOf(':') + 1), 16);
+            if (localPort != port) continue;
+
+            switch (f[3]) {
+                case ESTABLISHED -> established++;
+                case LISTEN -> queue += Integer.parseInt(f[4].substring(f[4].indexOf(':') + 1), 16);
+                default -> { }
+            }
+        }
+        return new SocketStats(established, queue);
+    }
+}
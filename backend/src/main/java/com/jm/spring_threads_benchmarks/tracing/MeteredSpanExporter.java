@@ -0,0 +1,56 @@
+package com.jm.spring_threads_benchmarks.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every export batch ({@code tracing.export}) and counts spans shipped ({@code tracing.export.spans}),
+ * both tagged with {@code outcome}. Export runs on the batch processor thread, so this is the
+ * background cost of tracing; the request-path cost shows up as the latency delta between runs
+ * with {@code TRACING_SAMPLING_PROBABILITY=0} and {@code 1}.
+ */
+class MeteredSpanExporter implements SpanExporter {
+
+    private final SpanExporter delegate;
+    private final Timer ok, failed;
+    private final Counter okSpans, failedSpans;
+
+    MeteredSpanExporter(SpanExporter delegate, MeterRegistry mr) {
+        this.delegate = delegate;
+        this.ok = Timer.builder("tracing.export").tag("outcome", "success").register(mr);
+        this.failed = Timer.builder("tracing.export").tag("outcome", "failure").register(mr);
+        this.okSpans = Counter.builder("tracing.export.spans").tag("outcome", "success").register(mr);
+        this.failedSpans = Counter.builder("tracing.export.spans").tag("outcome", "failure").register(mr);
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        long t0 = System.nanoTime();
+        int n = spans.size();
+        CompletableResultCode result = delegate.export(spans);
+        result.whenComplete(() -> {
+            long took = System.nanoTime() - t0;
+            if (result.isSuccess()) {
+                ok.record(took, TimeUnit.NANOSECONDS);
+                okSpans.increment(n);
+            } else {
+                failed.record(took, TimeUnit.NANOSECONDS);
+                failedSpans.increment(n);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode flush() { return delegate.flush(); }
+
+    @Override
+    public CompletableResultCode shutdown() { return delegate.shutdown(); }
+}
@@ -0,0 +1,34 @@
+package com.jm.spring_threads_benchmarks.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationPredicate;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+@Configuration(proxyBeanMethods = false)
+class TracingConfig {
+
+    // static + ObjectProvider: post-processors must not pull the registry in early
+    @Bean
+    static BeanPostProcessor meteredSpanExporters(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String name) {
+                return bean instanceof SpanExporter e && !(bean instanceof MeteredSpanExporter)
+                        ? new MeteredSpanExporter(e, registry.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    // Prometheus scrapes every 5s; keep them out of traces and request metrics
+    @Bean
+    ObservationPredicate skipActuatorObservations() {
+        return (name, ctx) -> !(ctx instanceof ServerRequestObservationContext s
+                && s.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+}
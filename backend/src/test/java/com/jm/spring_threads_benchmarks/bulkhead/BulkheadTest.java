@@ -0,0 +1,66 @@
+package com.jm.spring_threads_benchmarks.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BulkheadTest {
+
+    @Test
+    void rejects_when_saturated_and_counts_it() throws Exception {
+        var mr = new SimpleMeterRegistry();
+        var report = new Bulkhead("report", 1, Duration.ZERO, mr);
+
+        var inside = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (var exec = Executors.newVirtualThreadPerTaskExecutor()) {
+            exec.submit(() -> report.run(() -> {
+                inside.countDown();
+                try { release.await(); } catch (InterruptedException ignored) {}
+            }));
+            inside.await();
+
+            assertThat(report.active()).isEqualTo(1);
+            assertThatThrownBy(() -> report.call(() -> "late"))
+                    .isInstanceOf(BulkheadFullException.class)
+                    .hasMessageContaining("report");
+            assertThat(mr.counter("bulkhead.rejected", "bulkhead", "report").count()).isEqualTo(1.0);
+            assertThat(mr.get("bulkhead.saturation").tag("bulkhead", "report").gauge().value()).isEqualTo(1.0);
+
+            release.countDown();
+        }
+
+        assertThat(report.active()).isZero();
+        assertThat(report.call(() -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void saturated_report_does_not_affect_other_bulkheads() {
+        var mr = new SimpleMeterRegistry();
+        var report = new Bulkhead("report", 1, Duration.ZERO, mr);
+        var reads = new Bulkhead("reads", 8, Duration.ZERO, mr);
+
+        String nested = report.call(() -> {
+            assertThatThrownBy(() -> report.call(() -> "x")).isInstanceOf(BulkheadFullException.class);
+            return reads.call(() -> "read");
+        });
+
+        assertThat(nested).isEqualTo("read");
+        assertThat(mr.counter("bulkhead.rejected", "bulkhead", "reads").count()).isZero();
+    }
+
+    @Test
+    void unbounded_is_a_pass_through_without_meters() {
+        var mr = new SimpleMeterRegistry();
+        var reads = new BulkheadRegistry(new BulkheadProperties(), mr).get("reads");
+
+        assertThat(reads.call(() -> reads.call(() -> "nested"))).isEqualTo("nested");
+        assertThat(reads.active()).isZero();
+        assertThat(mr.getMeters()).isEmpty();             // no bulkhead.wait timer on the hot path
+    }
+}
@@ -1,25 +1,44 @@
 package com.jm.spring_threads_benchmarks.controller;
 
+import com.jm.spring_threads_benchmarks.bulkhead.BulkheadRegistry;
 import com.jm.spring_threads_benchmarks.dto.OrderDto;
+import com.jm.spring_threads_benchmarks.ingest.SyncIngest;
 import com.jm.spring_threads_benchmarks.repository.OrderRepo;
+import com.jm.spring_threads_benchmarks.server.ServerMetrics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import org.springframework.dao.EmptyResultDataAccessException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(OrderController.class)
+@WebMvcTest(controllers = OrderController.class, properties = "bench.bulkheads.instances.report.max-concurrent=1")
+@Import({BulkheadRegistry.class, SyncIngest.class, ServerMetrics.class, SimpleMeterRegistry.class})
 class OrderControllerTest {
 
     @Autowired MockMvc mvc;
+    @Autowired BulkheadRegistry bulkheads;
     @MockitoBean OrderRepo orderRepo;
 
     @Test
@@ -63,4 +82,84 @@ class OrderControllerTest {
                         .content(bad))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void post_400_on_nul_in_customer_before_anything_is_acknowledged() throws Exception {
+        mvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customer\":\"al\\u0000ice\",\"totalCents\":1299}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(orderRepo);
+    }
+
+    @Test
+    void slow_report_503_when_bulkhead_saturated_while_reads_still_succeed() throws Exception {
+        var release = new CountDownLatch(1);
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS)).when(orderRepo).slowQueryMillis(300L);
+        when(orderRepo.findById(7L)).thenReturn(new OrderDto(7L, "bob", 500));
+
+        // the first report holds the only permit until released
+        var first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mvc.perform(get("/orders/report/slow/300")).andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().atMost(5, TimeUnit.SECONDS).until(() -> bulkheads.get("report").active() == 1);
+
+        try {
+            mvc.perform(get("/orders/report/slow/300"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.details.bulkhead").value("report"));
+
+            mvc.perform(get("/orders/7"))
+                    .andExpect(status().isOk());
+        } finally {
+            release.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+    }
+
+    @Test
+    void reads_keep_their_p95_while_the_report_bulkhead_is_saturated() throws Exception {
+        var release = new CountDownLatch(1);
+        doAnswer(inv -> release.await(10, TimeUnit.SECONDS)).when(orderRepo).slowQueryMillis(2000L);
+        when(orderRepo.findById(7L)).thenReturn(new OrderDto(7L, "bob", 500));
+
+        var first = CompletableFuture.runAsync(() -> {
+            try {
+                mvc.perform(get("/orders/report/slow/2000"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().atMost(5, TimeUnit.SECONDS).until(() -> bulkheads.get("report").active() == 1);
+
+        // reports keep arriving (and bouncing) while a burst of reads runs next to them
+        var millis = new long[200];
+        try (var exec = Executors.newVirtualThreadPerTaskExecutor()) {
+            var reads = new ArrayList<Future<?>>();
+            for (int i = 0; i < millis.length; i++) {
+                int n = i;
+                reads.add(exec.submit(() -> {
+                    if (n % 4 == 0)
+                        mvc.perform(get("/orders/report/slow/2000")).andExpect(status().isServiceUnavailable());
+                    long t0 = System.nanoTime();
+                    mvc.perform(get("/orders/7")).andExpect(status().isOk());
+                    millis[n] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+                    return null;
+                }));
+            }
+            for (var r : reads) r.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+        first.get(5, TimeUnit.SECONDS);
+
+        Arrays.sort(millis);
+        assertThat(millis[(int) Math.ceil(millis.length * 0.95) - 1])
+                .as("read p95 (ms) while a report holds its only permit for 2s")
+                .isLessThan(500);
+    }
 }
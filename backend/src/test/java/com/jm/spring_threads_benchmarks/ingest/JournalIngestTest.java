@@ -0,0 +1,119 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import com.jm.spring_threads_benchmarks.repository.OrderRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.jm.spring_threads_benchmarks.dto.OrderDto;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JournalIngestTest {
+
+    @TempDir Path dir;
+
+    final OrderRepo repo = mock(OrderRepo.class);
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    JournalIngest ingest;
+
+    JournalIngest start(int maxSegments) throws Exception {
+        var ids = new AtomicLong();
+        when(repo.reserveIds(anyInt())).thenAnswer(inv ->
+                LongStream.range(0, inv.<Integer>getArgument(0)).mapToObj(i -> ids.incrementAndGet()).toList());
+
+        var props = new IngestProperties();
+        props.setMode("journal");
+        var j = props.getJournal();
+        j.setDir(dir.toString());
+        j.setSegmentSize(DataSize.ofBytes(256));   // 6 orders of 40 bytes per segment
+        j.setMaxSegments(maxSegments);
+        j.setIdBlock(10);
+        j.setDrainIdle(Duration.ofMillis(5));
+        j.setShutdownDrain(Duration.ofMillis(200));
+        ingest = new JournalIngest(repo, props, registry);
+        ingest.afterPropertiesSet();
+        return ingest;
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (ingest != null) ingest.destroy();
+    }
+
+    @Test
+    void a_row_postgres_rejects_is_dead_lettered_and_the_rest_drain() throws Exception {
+        Set<Long> stored = ConcurrentHashMap.newKeySet();
+        doAnswer(inv -> {
+            List<OrderDto> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.customer().equals("poison")))
+                throw new DataIntegrityViolationException("invalid byte sequence for encoding \"UTF8\": 0x00");
+            rows.forEach(r -> stored.add(r.id()));
+            return null;
+        }).when(repo).insertAll(anyList());
+        var in = start(64);
+
+        long before = in.create("alice", 100);
+        long poison = in.create("poison", 100);
+        long after = in.create("bob", 100);
+
+        await().until(() -> registry.get("ingest.backlog").gauge().value() == 0);
+        assertThat(stored).containsExactlyInAnyOrder(before, after);
+        assertThat(registry.get("ingest.dead.letters").counter().count()).isEqualTo(1);
+        assertThat(Files.readString(dir.resolve(JournalIngest.DEAD_LETTERS)))
+                .contains("\"id\":" + poison).contains("\"customer\":\"poison\"").contains("0x00");
+    }
+
+    @Test
+    void an_outage_keeps_rows_journalled_without_dead_letters() throws Exception {
+        doThrow(new CannotGetJdbcConnectionException("db down")).when(repo).insertAll(anyList());
+        var in = start(64);
+
+        in.create("alice", 100);
+        await().until(() -> registry.get("ingest.drain.failures").counter().count() >= 1);
+
+        assertThat(registry.get("ingest.backlog").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("ingest.dead.letters").counter().count()).isZero();
+        assertThat(dir.resolve(JournalIngest.DEAD_LETTERS)).doesNotExist();
+    }
+
+    @Test
+    void the_drainer_survives_an_unexpected_exception() throws Exception {
+        doThrow(new IllegalStateException("boom")).doNothing().when(repo).insertAll(anyList());
+        var in = start(64);
+
+        in.create("alice", 100);
+
+        await().until(() -> registry.get("ingest.drained").counter().count() == 1);
+        assertThat(registry.get("ingest.drain.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void a_full_journal_refuses_new_orders_while_postgres_is_down() throws Exception {
+        doThrow(new CannotGetJdbcConnectionException("db down")).when(repo).insertAll(anyList());
+        var in = start(2);
+
+        for (int i = 0; i < 12; i++) in.create("cust-" + String.format("%06d", i), 100);   // fills both segments
+
+        assertThatThrownBy(() -> in.create("cust-000012", 100))
+                .isInstanceOf(JournalFullException.class)
+                .extracting("segments").isEqualTo(2);
+        assertThat(registry.get("ingest.rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("ingest.backlog").gauge().value()).isEqualTo(12);
+    }
+}
@@ -0,0 +1,84 @@
+package com.jm.spring_threads_benchmarks.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class JournalTest {
+
+    static final int SEGMENT = 256;   // 6 records of 40 bytes per segment, 16 bytes left zero
+
+    @TempDir Path dir;
+
+    static Journal.Entry order(long id) {
+        return new Journal.Entry(id, "cust-" + (char) ('a' + id % 26) + "-" + String.format("%05d", id), 100 + (int) id, 1_000 + id);
+    }
+
+    @Test
+    void only_forced_entries_are_readable_and_segments_roll() throws Exception {
+        try (var j = new Journal(dir, SEGMENT)) {
+            long end = 0;
+            for (long id = 1; id <= 15; id++) end = j.append(order(id));
+            assertThat(j.read(j.checkpointed(), 100).entries()).isEmpty();
+
+            j.awaitDurable(end);
+            var batch = j.read(j.checkpointed(), 100);
+            assertThat(batch.entries()).hasSize(15).first().isEqualTo(order(1));
+            assertThat(batch.entries().get(14)).isEqualTo(order(15));
+            assertThat(batch.end()).isEqualTo(end);
+            await().until(() -> j.segmentCount() == 4);   // three in use and the next one prepared ahead
+
+            j.checkpoint(j.read(0, 7).end());          // entry 7 opened the second segment
+            assertThat(j.segmentCount()).isEqualTo(3);
+            assertThat(j.read(j.checkpointed(), 100).entries()).first().isEqualTo(order(8));
+        }
+    }
+
+    @Test
+    void reopening_replays_from_the_checkpoint() throws Exception {
+        try (var j = new Journal(dir, SEGMENT)) {
+            for (long id = 1; id <= 8; id++) j.append(order(id));
+            j.force();
+            j.checkpoint(j.read(0, 3).end());
+        }
+
+        try (var j = new Journal(dir, SEGMENT)) {
+            assertThat(j.recoveredEntries()).isEqualTo(5);
+            assertThat(j.read(j.checkpointed(), 100).entries()).extracting(Journal.Entry::id).containsExactly(4L, 5L, 6L, 7L, 8L);
+
+            j.awaitDurable(j.append(order(9)));
+            assertThat(j.read(j.checkpointed(), 100).entries()).last().isEqualTo(order(9));
+        }
+    }
+
+    @Test
+    void a_torn_tail_is_dropped_by_crc() throws Exception {
+        try (var j = new Journal(dir, SEGMENT)) {
+            for (long id = 1; id <= 3; id++) j.append(order(id));
+        }
+        Path seg;
+        try (Stream<Path> files = Files.list(dir)) {
+            seg = files.filter(p -> p.toString().endsWith(".seg")).sorted().findFirst().orElseThrow();   // not the one prepared ahead
+        }
+        int record = Journal.HEADER + Journal.FIXED + order(3).customer().length();
+        try (var f = new RandomAccessFile(seg.toFile(), "rw")) {
+            f.seek(2L * record + Journal.HEADER + 3);   // inside the third record's id
+            f.write(0x7f);
+        }
+
+        try (var j = new Journal(dir, SEGMENT)) {
+            assertThat(j.recoveredEntries()).isEqualTo(2);
+            assertThat(j.appended()).isEqualTo(2L * record);
+
+            j.awaitDurable(j.append(order(4)));
+            assertThat(j.read(0, 100).entries()).extracting(Journal.Entry::id).containsExactly(1L, 2L, 4L);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jm.spring_threads_benchmarks.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorLogSamplerTest {
+
+    LoggerContext ctx;
+    ErrorLogSampler sampler;
+    ListAppender<ILoggingEvent> out;
+
+    @BeforeEach
+    void setUp() {
+        ctx = new LoggerContext();
+        sampler = new ErrorLogSampler();
+        sampler.setAllowedPerWindow(3);
+        sampler.setWindowMillis(60_000);
+        sampler.setContext(ctx);
+        sampler.start();
+        ctx.addTurboFilter(sampler);
+
+        out = new ListAppender<>();
+        out.setContext(ctx);
+        out.start();
+        ctx.getLogger("ROOT").addAppender(out);
+    }
+
+    @Test
+    void repeated_error_template_is_capped_per_window() {
+        var log = ctx.getLogger("com.jm.Test");
+
+        for (int i = 0; i < 10; i++)
+            log.error("Unhandled error on {} {}", "GET", "/orders/" + i, new IllegalStateException("boom"));
+
+        assertThat(out.list).hasSize(3);
+        assertThat(sampler.getSuppressedCount()).isEqualTo(7);
+    }
+
+    @Test
+    void different_templates_exceptions_and_info_are_independent() {
+        var log = ctx.getLogger("com.jm.Test");
+
+        for (int i = 0; i < 5; i++) {
+            log.error("a {}", i);
+            log.error("a {}", i, new RuntimeException());
+            log.warn("b {}", i);
+            log.info("c {}", i);
+        }
+
+        // 3 x "a" without exception, 3 x "a" with exception, 3 x "b", 5 x "c"
+        assertThat(out.list).hasSize(14);
+        assertThat(sampler.getSuppressedCount()).isEqualTo(6);
+    }
+
+    @Test
+    void window_rollover_lets_events_through_again() throws Exception {
+        sampler.setWindowMillis(50);
+        var log = ctx.getLogger("com.jm.Test");
+
+        for (int i = 0; i < 5; i++) log.error("x");
+        Thread.sleep(80);
+        for (int i = 0; i < 5; i++) log.error("x");
+
+        assertThat(out.list).hasSize(6);
+    }
+}
@@ -0,0 +1,88 @@
+package com.jm.spring_threads_benchmarks.pool;
+
+import com.jm.spring_threads_benchmarks.pool.AutosizePolicy.Action;
+import com.jm.spring_threads_benchmarks.pool.AutosizePolicy.Sample;
+import com.jm.spring_threads_benchmarks.pool.AutosizePolicy.State;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutosizePolicyTest {
+
+    static PoolAutosizeProperties cfg() {
+        var cfg = new PoolAutosizeProperties();
+        cfg.setMin(4);
+        cfg.setMax(20);
+        cfg.setCooldown(1);
+        return cfg;
+    }
+
+    @Test
+    void steps_up_while_callers_wait_then_reverts_when_the_db_is_the_limit() {
+        var cfg = cfg();
+        var state = State.initial(cfg.getMax());
+
+        var d = AutosizePolicy.decide(cfg, state, new Sample(10, 10, 30, 40, 8, 1000));
+        assertThat(d.action()).isEqualTo(Action.UP);
+        assertThat(d.size()).isEqualTo(12);
+
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(12, 12, 30, 40, 9, 1010));
+        assertThat(d.action()).isEqualTo(Action.HOLD);      // cooldown
+
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(12, 12, 30, 40, 11, 1010));
+        assertThat(d.action()).isEqualTo(Action.REVERT);    // +1% throughput, hold time 8 -> 11 ms
+        assertThat(d.size()).isEqualTo(10);
+
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(10, 10, 30, 40, 8, 1000));
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(10, 10, 30, 40, 8, 1000));
+        assertThat(d.action()).isEqualTo(Action.HOLD);      // capped at the reverted size: converged
+        assertThat(d.size()).isEqualTo(10);
+    }
+
+    @Test
+    void a_learned_cap_holds_under_steady_load_and_is_re_probed_when_the_load_moves() {
+        var cfg = cfg();
+        var d = AutosizePolicy.decide(cfg, State.initial(cfg.getMax()), new Sample(10, 10, 30, 40, 8, 1000));
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(12, 12, 30, 40, 11, 1010));
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(12, 12, 30, 40, 11, 1010));
+        assertThat(d.action()).isEqualTo(Action.REVERT);
+
+        var steady = new Sample(10, 10, 30, 40, 8, 1000);
+        for (int i = 0; i < cfg.getCeilingHold() * 4; i++) {   // well past ceilingHold
+            d = AutosizePolicy.decide(cfg, d.next(), steady);
+            assertThat(d.action()).as("interval %d", i).isEqualTo(Action.HOLD);
+            assertThat(d.size()).isEqualTo(10);
+        }
+
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(10, 10, 60, 40, 8, 1000));   // twice the waiters
+        assertThat(d.action()).isEqualTo(Action.UP);
+        assertThat(d.size()).isEqualTo(12);
+    }
+
+    @Test
+    void keeps_a_step_up_that_bought_throughput() {
+        var cfg = cfg();
+        var d = AutosizePolicy.decide(cfg, State.initial(cfg.getMax()), new Sample(10, 10, 30, 40, 8, 1000));
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(12, 12, 20, 30, 9, 1150));
+        d = AutosizePolicy.decide(cfg, d.next(), new Sample(12, 12, 20, 30, 9, 1150));
+
+        assertThat(d.action()).isEqualTo(Action.UP);
+        assertThat(d.size()).isEqualTo(14);
+    }
+
+    @Test
+    void shrinks_an_idle_pool_down_to_min_and_never_past_max() {
+        var cfg = cfg();
+        var d = AutosizePolicy.decide(cfg, State.initial(cfg.getMax()), new Sample(5, 1, 0, 0, 2, 50));
+        assertThat(d.action()).isEqualTo(Action.DOWN);
+        assertThat(d.size()).isEqualTo(4);
+
+        d = AutosizePolicy.decide(cfg, new State(0, 20, 0, null, null), new Sample(4, 0, 0, 0, 2, 50));
+        assertThat(d.action()).isEqualTo(Action.HOLD);
+
+        d = AutosizePolicy.decide(cfg, new State(0, 20, 0, null, null), new Sample(19, 19, 50, 100, 8, 1000));
+        assertThat(d.size()).isEqualTo(20);
+        d = AutosizePolicy.decide(cfg, new State(0, 20, 0, null, null), new Sample(20, 20, 50, 100, 8, 1000));
+        assertThat(d.action()).isEqualTo(Action.HOLD);
+    }
+}
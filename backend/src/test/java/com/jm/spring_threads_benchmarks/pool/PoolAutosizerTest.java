@@ -0,0 +1,95 @@
+package com.jm.spring_threads_benchmarks.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+class PoolAutosizerTest {
+
+    private final SimpleMeterRegistry mr = new SimpleMeterRegistry();
+    private PoolAutosizer autosizer;
+
+    // never started, so no connections are opened; the config MXBean is the data source itself
+    private static HikariDataSource hikari(int size) {
+        var ds = new HikariDataSource();
+        ds.setPoolName("test-pool");
+        ds.setMaximumPoolSize(size);
+        ds.setMinimumIdle(size);                          // fixed-size baseline: pool kept full
+        ds.setIdleTimeout(Duration.ofMinutes(10).toMillis());
+        return ds;
+    }
+
+    // the pool sits behind the JDBC observation proxy in the app
+    private static DataSource proxied(HikariDataSource hikari) throws Exception {
+        var ds = mock(DataSource.class);
+        when(ds.unwrap(HikariDataSource.class)).thenReturn(hikari);
+        return ds;
+    }
+
+    @AfterEach
+    void stop() {
+        if (autosizer != null) autosizer.destroy();
+    }
+
+    @Test
+    void startup_clamps_the_size_and_stops_keeping_the_pool_full() throws Exception {
+        var hikari = hikari(50);
+        autosizer = new PoolAutosizer(AutosizePolicyTest.cfg(), proxied(hikari), mr);
+
+        autosizer.afterPropertiesSet();
+
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(20);                    // clamped to max
+        assertThat(hikari.getMinimumIdle()).isEqualTo(4);                         // min, not the pool size
+        assertThat(hikari.getIdleTimeout()).isEqualTo(Duration.ofSeconds(30).toMillis());
+        assertThat(mr.get("pool.autosize.target").gauge().value()).isEqualTo(20.0);
+    }
+
+    @Test
+    void rejects_bounds_that_leave_no_room() {
+        var cfg = AutosizePolicyTest.cfg();
+        cfg.setMin(30);
+
+        assertThatThrownBy(() -> new PoolAutosizer(cfg, mock(DataSource.class), mr))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void waiters_with_slow_acquires_step_the_live_pool_up() throws Exception {
+        var cfg = AutosizePolicyTest.cfg();
+        cfg.setInterval(Duration.ofMillis(50));
+        cfg.setCooldown(1000);                            // one decision, then hold
+        var hikari = spy(hikari(10));
+        var acquire = Timer.builder("hikaricp.connections.acquire").tag("pool", "test-pool").register(mr);
+        var usage = Timer.builder("hikaricp.connections.usage").tag("pool", "test-pool").register(mr);
+
+        // every tick sees a saturated pool: 10 active, 30 waiting, 40ms acquires since the previous tick
+        var pool = mock(HikariPoolMXBean.class);
+        when(pool.getActiveConnections()).thenReturn(10);
+        when(pool.getThreadsAwaitingConnection()).thenAnswer(inv -> {
+            for (int i = 0; i < 10; i++) {
+                acquire.record(40, TimeUnit.MILLISECONDS);
+                usage.record(8, TimeUnit.MILLISECONDS);
+            }
+            return 30;
+        });
+        doReturn(pool).when(hikari).getHikariPoolMXBean();
+        autosizer = new PoolAutosizer(cfg, proxied(hikari), mr);
+
+        autosizer.afterPropertiesSet();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> hikari.getMaximumPoolSize() == 12);
+        assertThat(mr.get("pool.autosize.target").gauge().value()).isEqualTo(12.0);
+        assertThat(mr.get("pool.autosize.decisions").tag("action", "up").counter().count()).isEqualTo(1.0);
+    }
+}
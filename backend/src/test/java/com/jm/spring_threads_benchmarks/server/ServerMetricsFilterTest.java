@@ -0,0 +1,27 @@
+package com.jm.spring_threads_benchmarks.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerMetricsFilterTest {
+
+    @Test
+    void unflushed_writer_output_reaches_the_client_and_is_counted() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var metrics = new ServerMetrics();
+        metrics.bindTo(registry);
+        var res = new MockHttpServletResponse();
+        res.setCharacterEncoding("UTF-8");
+
+        new ServerMetricsFilter(metrics).doFilter(new MockHttpServletRequest("GET", "/orders/1"), res,
+                (rq, rs) -> rs.getWriter().write("{\"id\":1,\"customer\":\"zoë\"}"));   // never flushed
+
+        assertThat(res.getContentAsString()).isEqualTo("{\"id\":1,\"customer\":\"zoë\"}");
+        assertThat(res.isCommitted()).isFalse();
+        assertThat(registry.get("server.bytes.sent").counter().count()).isEqualTo(26);
+    }
+}
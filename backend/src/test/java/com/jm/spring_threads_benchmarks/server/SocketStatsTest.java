@@ -0,0 +1,33 @@
+package com.jm.spring_threads_benchmarks.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SocketStatsTest {
+
+    // port 8080 = 0x1F90; listener with 3 queued, two clients, one TIME_WAIT, one other port
+    static final List<String> TCP = List.of(
+            "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode",
+            "   0: 00000000:1F90 00000000:0000 0A 00000000:00000003 00:00000000 00000000     0        0 1001 1",
+            "   1: 0100007F:1F90 0100007F:D2A4 01 00000000:00000000 00:00000000 00000000     0        0 1002 1",
+            "   2: 0100007F:1F90 0100007F:D2A6 01 00000000:00000000 00:00000000 00000000     0        0 1003 1",
+            "   3: 0100007F:1F90 0100007F:D2A8 06 00000000:00000000 03:00000AE6 00000000     0        0 0 3",
+            "   4: 00000000:1538 00000000:0000 0A 00000080:00000000 00:00000000 00000000     0        0 1004 1");
+
+    @Test
+    void counts_established_and_accept_queue_for_the_server_port_only() {
+        var s = SocketStats.parse(TCP, 8080);
+
+        assertThat(s.established()).isEqualTo(2);
+        assertThat(s.acceptQueue()).isEqualTo(3);
+    }
+
+    @Test
+    void unreadable_tables_report_unavailable() {
+        assertThat(SocketStats.read(8080, List.of(java.nio.file.Path.of("/nonexistent/tcp"))))
+                .isEqualTo(SocketStats.UNAVAILABLE);
+    }
+}
@@ -0,0 +1,54 @@
+package com.jm.spring_threads_benchmarks.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MeteredSpanExporterTest {
+
+    static class StubExporter implements SpanExporter {
+        CompletableResultCode next = CompletableResultCode.ofSuccess();
+        @Override public CompletableResultCode export(Collection<SpanData> spans) { return next; }
+        @Override public CompletableResultCode flush() { return CompletableResultCode.ofSuccess(); }
+        @Override public CompletableResultCode shutdown() { return CompletableResultCode.ofSuccess(); }
+    }
+
+    @Test
+    void records_batches_and_spans_by_outcome() {
+        var mr = new SimpleMeterRegistry();
+        var stub = new StubExporter();
+        var exporter = new MeteredSpanExporter(stub, mr);
+        var batch = List.of(mock(SpanData.class), mock(SpanData.class), mock(SpanData.class));
+
+        exporter.export(batch);
+        stub.next = CompletableResultCode.ofFailure();
+        exporter.export(batch.subList(0, 1));
+
+        assertThat(mr.get("tracing.export").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(mr.get("tracing.export").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(mr.get("tracing.export.spans").tag("outcome", "success").counter().count()).isEqualTo(3.0);
+        assertThat(mr.get("tracing.export.spans").tag("outcome", "failure").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void records_when_async_export_completes() {
+        var mr = new SimpleMeterRegistry();
+        var stub = new StubExporter();
+        var pending = new CompletableResultCode();
+        stub.next = pending;
+
+        new MeteredSpanExporter(stub, mr).export(List.of(mock(SpanData.class)));
+        assertThat(mr.get("tracing.export").tag("outcome", "success").timer().count()).isZero();
+
+        pending.succeed();
+        assertThat(mr.get("tracing.export").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+}
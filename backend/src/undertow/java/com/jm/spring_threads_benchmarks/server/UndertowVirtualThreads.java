@@ -0,0 +1,26 @@
+package com.jm.spring_threads_benchmarks.server;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Boot has virtual-thread customizers for Tomcat and Jetty only; without this, Undertow dispatches servlet
+ * requests to its platform worker pool even with {@code spring.threads.virtual.enabled}. Compiled only by
+ * the {@code undertow} profile (src/undertow/java), since the default build has no Undertow on the classpath.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+class UndertowVirtualThreads {
+
+    @Bean
+    WebServerFactoryCustomizer<UndertowServletWebServerFactory> undertowVirtualThreadExecutor() {
+        return factory -> factory.addDeploymentInfoCustomizers(info -> info.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("undertow-vt-", 0).factory())));
+    }
+}
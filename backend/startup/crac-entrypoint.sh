@@ -0,0 +1,14 @@
+#!/bin/sh
+# With an image in $CRAC_DIR the JVM is restored from it: heap, JIT-compiled code and pools as they
+# were at checkpoint time. Otherwise the app starts normally and waits for
+#   jcmd /app/app.jar JDK.checkpoint
+# (scripts/startup/prepare.sh crac sends it after a k6 warm-up); the JVM then dumps and exits.
+set -eu
+CRAC_DIR="${CRAC_DIR:-/crac/checkpoint}"
+
+if [ -n "$(ls -A "$CRAC_DIR" 2>/dev/null)" ]; then
+  exec java -XX:CRaCRestoreFrom="$CRAC_DIR"
+fi
+
+mkdir -p "$CRAC_DIR"
+exec java $JAVA_OPTS -XX:CRaCCheckpointTo="$CRAC_DIR" -jar app.jar
@@ -0,0 +1,13 @@
+#!/bin/sh
+# First start (no archive yet, or the jar changed): the JVM records every class it loads and
+# writes the dynamic AppCDS archive when it exits. Drive it with a k6 warm-up before stopping it
+# (scripts/startup/prepare.sh fast) so the archive covers the request path, not just boot.
+# Later starts map the archive instead of loading and verifying those classes again.
+set -eu
+CDS_ARCHIVE="${CDS_ARCHIVE:-/cds/app.jsa}"
+mkdir -p "$(dirname "$CDS_ARCHIVE")"
+
+exec java $JAVA_OPTS \
+  -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile="$CDS_ARCHIVE" \
+  -Dspring.aot.enabled=true \
+  -jar extracted/app.jar
@@ -1,6 +1,9 @@
 package com.jm.runner.api;
 
+import java.util.List;
 import java.util.Map;
+import com.jm.runner.model.FaultStep;
+import com.jm.runner.model.JvmConfig;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,4 +12,15 @@ import lombok.NoArgsConstructor;
 public class StartRunRequest {
     public String script;              // e.g. "constant_rate.js"
     public Map<String,String> params;  // e.g. RPS, DURATION, etc.
+    public String startupMode;         // optional: restart this backend variant first and measure startup, e.g. "fast"
+
+    // optional scale-out: N fresh backend replicas behind the load balancer instead of the single backend
+    public Integer replicas;
+    public String lbAlgorithm;         // roundrobin (default) | leastconn
+    public Integer replicaPoolSize;    // SPRING_DB_POOL_SIZE per replica; default = the backend container's
+    public Double replicaCpus;         // CPU limit per replica; default unlimited
+
+    public JvmConfig jvm;              // optional: fresh backend with these JVM options (GC, heap, carrier pool)
+    public String warmup;              // optional k6 warm-up (runner.warmup-script) before the measured run, e.g. "2m"
+    public List<FaultStep> faults;     // optional: degrade the DB link via the fault proxy, timed from the measured start
 }
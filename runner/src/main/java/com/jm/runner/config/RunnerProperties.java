@@ -4,6 +4,12 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Data                 // generates getters/setters, toString, equals/hashCode
 @NoArgsConstructor    // needed for binder (JavaBean style)
 @ConfigurationProperties("runner")
@@ -13,6 +19,47 @@ public class RunnerProperties {
     private String promRemoteWriteUrl = "http://prometheus:9090/api/v1/write";
     private String scriptsDir = "/work";
     private String resultsDir = "/data/runs";
+    private String workloadsManifest = "workloads.json";   // relative to scriptsDir
     private int maxConcurrency = 1;
 
+    // Post-run Prometheus snapshot; empty prometheusUrl disables it
+    private String prometheusUrl = "http://prometheus:9090";
+    private Duration metricsStep = Duration.ofSeconds(15);
+    private Duration metricsRateWindow = Duration.ofSeconds(30);   // the [30s] in metrics-queries
+    private Map<String,String> metricsQueries = new LinkedHashMap<>();   // name -> PromQL, "$run" = run label
+    private String backendRunLabel = "dev";           // RUN_ID the compose backend was started with
+
+    // Startup modes: mode -> backend container, restarted before the run (StartRunRequest.startupMode)
+    private Map<String,String> startupModes = new LinkedHashMap<>();
+    private int backendPort = 8080;
+    private String startupProbePath = "/actuator/health";
+    private String firstRequestPath = "/orders/1";     // timed after a startupMode restart: a real API call
+    private Duration startupTimeout = Duration.ofMinutes(2);
+    private String steadyStateQuery;                  // server p99 in seconds, "$instance" = <container>:<port>
+    private Duration steadyStateStep = Duration.ofSeconds(5);
+    private double steadyStateTolerance = 0.2;        // relative band around the final p99
+    private List<String> aotModes = new ArrayList<>(List.of("fast"));   // modes running the Spring AOT jar
+    private Map<String,String> aotSwitches = new LinkedHashMap<>();     // env var -> value the AOT jar was built with
+
+    // Scale-out: replicas are cloned from replicaTemplate's container config and reached through the LB
+    private String replicaTemplate = "backend";
+    private Duration cloneStopTimeout = Duration.ofSeconds(30);     // SIGTERM grace: journal drain + pool close
+    private String replicaAlias = "backend-replica";   // network alias the LB resolves (server-template)
+    private int maxReplicas = 16;                      // server-template slots in haproxy.cfg
+    private Map<String,String> lbBaseUrls = new LinkedHashMap<>();   // algorithm -> LB frontend
+    private Duration replicaSettle = Duration.ofSeconds(5);          // LB DNS refresh + health checks
+    private int pgMaxConnections = 100;
+
+    // JVM-option runs get their own clone of the backend under this name
+    private String jvmContainer = "backend-jvm";
+    private String warmupScript;                        // unset = the measured script; run with DURATION = warmup
+
+    // Fault proxy for the backend -> Postgres link (StartRunRequest.faults); unset upstream = no proxy
+    private int faultProxyPort = 15432;
+    private String faultProxyUpstream;                  // host:port, e.g. postgres:5432
+
+    public String startupBaseUrl(String mode) {
+        String container = startupModes.get(mode);
+        return container == null ? null : "http://" + container + ":" + backendPort;
+    }
 }
@@ -4,10 +4,16 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import com.jm.runner.service.RunnerService;
+import com.jm.runner.service.WorkloadCatalog;
+import com.jm.runner.service.MetricsSnapshotService;
+import com.jm.runner.model.MetricsSnapshot;
 import com.jm.runner.config.RunnerProperties;
 import com.jm.runner.model.RunRecord;
 import com.jm.runner.api.StartRunRequest;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import org.springframework.web.server.ResponseStatusException;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -18,10 +24,14 @@ public class RunsController {
 
     private final RunnerService service;
     private final RunnerProperties props;
+    private final WorkloadCatalog workloads;
+    private final MetricsSnapshotService snapshots;
 
-    public RunsController(RunnerService s, RunnerProperties p) {
+    public RunsController(RunnerService s, RunnerProperties p, WorkloadCatalog w, MetricsSnapshotService m) {
         this.service = s;
         this.props = p;
+        this.workloads = w;
+        this.snapshots = m;
     }
 
     @GetMapping
@@ -54,8 +64,23 @@ public class RunsController {
                 .body(new FileSystemResource(f));
     }
 
+    @GetMapping("/{id}/metrics")
+    public MetricsSnapshot metrics(@PathVariable String id) throws IOException {
+        if (!RunnerService.RUN_ID.matcher(id).matches())
+            throw new ResponseStatusException(NOT_FOUND, "Run not found: " + id);
+
+        // runs from before a restart are no longer in memory, but their snapshot is still on disk
+        var r = service.get(id);
+        Path file = r != null && r.metricsPath != null ? Path.of(r.metricsPath) : snapshots.file(id);
+        if (!Files.exists(file))
+            throw new ResponseStatusException(NOT_FOUND, "Metrics snapshot not available");
+
+        return snapshots.read(file);
+    }
+
     @PostMapping
     public ResponseEntity<RunRecord> start(@RequestBody StartRunRequest req) {
+        workloads.validate(req.script, req.params);
         var r = service.enqueue(req);
         return ResponseEntity.accepted().body(r);
     }
@@ -0,0 +1,28 @@
+package com.jm.runner.controller;
+
+import org.springframework.web.bind.annotation.*;
+import com.jm.runner.service.WorkloadCatalog;
+import com.jm.runner.model.Workload;
+import java.util.List;
+import org.springframework.web.server.ResponseStatusException;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RestController
+@RequestMapping("/workloads")
+public class WorkloadsController {
+
+    private final WorkloadCatalog catalog;
+
+    public WorkloadsController(WorkloadCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    @GetMapping
+    public List<Workload> list() { return catalog.list(); }
+
+    @GetMapping("/{script}")
+    public Workload get(@PathVariable String script) {
+        return catalog.find(script)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Workload not found: " + script));
+    }
+}
@@ -0,0 +1,22 @@
+package com.jm.runner.model;
+
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One scheduled degradation of the backend -> Postgres link, applied through the runner's fault proxy. */
+@Data
+@NoArgsConstructor
+public class FaultStep {
+    public String at;               // offset from the measured load's start, e.g. "30s"
+    public String duration;         // how long the toxics stay on, e.g. "1m"
+
+    public Long latencyMs;          // added to every database response
+    public Long jitterMs;           // +/- around latencyMs
+    public Long bandwidthKBps;      // kilobytes per second, per connection and direction
+    public Boolean reset;           // reset open connections, and new ones while the step lasts
+    public Boolean stall;           // keep connections open but forward nothing
+
+    public Instant appliedAt;       // filled in by the runner
+    public Instant clearedAt;
+}
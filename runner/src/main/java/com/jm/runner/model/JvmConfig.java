@@ -0,0 +1,19 @@
+package com.jm.runner.model;
+
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** JVM options for one run; the backend is started fresh with them (see JvmService). */
+@Data
+@NoArgsConstructor
+public class JvmConfig {
+    public String gc;                 // g1 | zgc (generational) | parallel | serial | shenandoah
+    public String heap;               // fixed heap, -Xms = -Xmx, e.g. "512m", "2g"
+    public Integer vtParallelism;     // jdk.virtualThreadScheduler.parallelism (carrier threads)
+    public Integer vtMaxPoolSize;     // jdk.virtualThreadScheduler.maxPoolSize (carriers incl. pinned compensation)
+    public List<String> options;      // extra -XX:/-D/-Xlog options
+    public String tag;                // label on metrics + RunRecord; derived from the above if absent
+
+    public String javaOpts;           // resolved JAVA_OPTS the backend ran with (set by the runner)
+}
@@ -0,0 +1,16 @@
+package com.jm.runner.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSeries {
+    public String query;               // name of the configured PromQL expression
+    public Map<String,String> labels;
+    public long[] timestamps;          // epoch millis
+    public double[] values;
+}
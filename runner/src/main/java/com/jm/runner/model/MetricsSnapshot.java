@@ -0,0 +1,18 @@
+package com.jm.runner.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class MetricsSnapshot {
+    public String runId;
+    public String runLabel;
+    public Instant start;
+    public Instant end;
+    public Duration step;
+    public List<MetricSeries> series;
+}
@@ -1,6 +1,7 @@
 package com.jm.runner.model;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,4 +16,14 @@ public class RunRecord {
     public Instant end;
     public RunStatus status;
     public String summaryPath;
+    public String runLabel;        // `run` tag used to filter Prometheus series
+    public String metricsPath;     // columnar Prometheus snapshot, see GET /runs/{id}/metrics
+    public StartupStats startup;   // only for runs with a startupMode
+    public ScaleOutStats scaleOut; // only for runs with replicas
+    public JvmConfig jvm;          // only for runs with JVM options; jvm.tag is the `jvm` tag on all series
+    public String warmup;          // k6 warm-up before the measured load, e.g. "2m"
+    public String warmupScript;    // script the warm-up ran; the measured one unless runner.warmup-script is set
+    public Instant measureStart;   // measured load started (after restarts and warm-up)
+    public String serverEngine;    // tomcat | jetty | undertow, from the backend's /actuator/info
+    public List<FaultStep> faults; // toxics applied through the fault proxy, with when they were on
 }
@@ -0,0 +1,18 @@
+package com.jm.runner.model;
+
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Topology of a scale-out run (StartRunRequest.replicas); filled in by ReplicaService. */
+@Data
+@NoArgsConstructor
+public class ScaleOutStats {
+    public int replicas;
+    public String lbAlgorithm;            // roundrobin | leastconn
+    public Double cpusPerReplica;         // null = unlimited
+    public Integer poolSizePerReplica;    // SPRING_DB_POOL_SIZE each replica ran with
+    public Integer totalDbConnections;    // replicas x poolSizePerReplica: what Hikari may open at most
+    public int pgMaxConnections;          // Postgres max_connections the run was configured against
+    public List<String> containers;
+}
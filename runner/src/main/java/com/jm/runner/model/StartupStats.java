@@ -0,0 +1,18 @@
+package com.jm.runner.model;
+
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Cold-start measurements for a run started with {@code startupMode}; filled in by StartupService. */
+@Data
+@NoArgsConstructor
+public class StartupStats {
+    public String mode;                  // key of runner.startup-modes, e.g. plain | fast | crac
+    public String container;
+    public Instant restartedAt;          // container start issued
+    public Long timeToFirstRequestMs;    // until the probe path first answered 200
+    public Long timeToSteadyStateMs;     // until server p99 stayed within tolerance of its final level; null = never settled
+    public Double firstP99Ms;            // first p99 sample under load
+    public Double steadyP99Ms;           // the final level it settled to
+}
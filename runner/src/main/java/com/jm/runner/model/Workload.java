@@ -0,0 +1,14 @@
+package com.jm.runner.model;
+
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class Workload {
+    public String script;             // e.g. "spike.js"
+    public String model;              // open (arrival-rate) | closed (fixed VUs)
+    public String description;
+    public List<WorkloadParam> params;
+}
@@ -0,0 +1,17 @@
+package com.jm.runner.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class WorkloadParam {
+    public String name;               // env var read by the script, e.g. "RPS"
+    public String type;               // number | duration | string | enum
+    @JsonProperty("default")
+    public String defaultValue;
+    public List<String> values;       // allowed values when type = enum
+    public String description;
+}
@@ -0,0 +1,79 @@
+package com.jm.runner.prometheus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.MetricSeries;
+
+/** Minimal client for Prometheus' HTTP API ({@code /api/v1/query_range}). */
+@Component
+public class PrometheusClient {
+
+    private final RestClient http;
+
+    public PrometheusClient(RestClient.Builder builder, RunnerProperties props) {
+        this.http = builder.baseUrl(props.getPrometheusUrl()).build();
+    }
+
+    /** {@code value} escaped for use inside a double-quoted PromQL label matcher ({@code run="$run"}). */
+    public static String labelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public List<MetricSeries> queryRange(String name, String expr, Instant start, Instant end, Duration step) {
+        var form = new LinkedMultiValueMap<String,String>();
+        form.add("query", expr);
+        form.add("start", seconds(start));
+        form.add("end", seconds(end));
+        form.add("step", seconds(step.toMillis()));
+
+        // POST keeps long PromQL out of the URL
+        JsonNode body = http.post()
+                .uri("/api/v1/query_range")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(form)
+                .retrieve()
+                .body(JsonNode.class);
+
+        if (body == null || !"success".equals(body.path("status").asText()))
+            throw new IllegalStateException("Prometheus query '" + name + "' failed: "
+                    + (body == null ? "empty response" : body.path("error").asText()));
+
+        List<MetricSeries> out = new ArrayList<>();
+        for (JsonNode r : body.path("data").path("result")) {
+            var labels = new TreeMap<String,String>();
+            r.path("metric").fields().forEachRemaining(e -> labels.put(e.getKey(), e.getValue().asText()));
+
+            JsonNode points = r.path("values");
+            long[] ts = new long[points.size()];
+            double[] vs = new double[points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                ts[i] = Math.round(points.get(i).get(0).asDouble() * 1000);
+                vs[i] = parseValue(points.get(i).get(1).asText());
+            }
+            out.add(new MetricSeries(name, labels, ts, vs));
+        }
+        return out;
+    }
+
+    private static double parseValue(String v) {
+        return switch (v) {
+            case "NaN" -> Double.NaN;
+            case "+Inf" -> Double.POSITIVE_INFINITY;
+            case "-Inf" -> Double.NEGATIVE_INFINITY;
+            default -> Double.parseDouble(v);
+        };
+    }
+
+    private static String seconds(Instant t) { return seconds(t.toEpochMilli()); }
+
+    private static String seconds(long millis) { return String.format(Locale.ROOT, "%.3f", millis / 1000.0); }
+}
@@ -0,0 +1,263 @@
+package com.jm.runner.proxy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * TCP proxy the backend's JDBC URL can point at, degrading the link to Postgres on demand ({@link #apply}).
+ * Each accepted connection gets an upstream connection and virtual threads moving bytes through direct buffers,
+ * so forwarding never copies through the heap. Toxics are read per chunk, so a change takes effect on live
+ * connections immediately. Responses are read ahead of delivery (up to {@link #READ_AHEAD} bytes per connection), so
+ * each chunk is held until its own arrival plus the latency, and a result set up to that size is delayed once.
+ * Beyond it the link moves {@code READ_AHEAD} per latency, like a TCP window over a long round trip.
+ */
+public class FaultProxy implements Closeable {
+
+    static final int BUFFER = 16 * 1024;
+    static final int READ_AHEAD = 1024 * 1024;   // response bytes per connection read while earlier ones wait out their latency
+
+    private final String upstreamHost;
+    private final int upstreamPort;
+    private final ServerSocketChannel server;
+    private final Set<Link> links = ConcurrentHashMap.newKeySet();
+
+    private volatile Toxics toxics = Toxics.NONE;
+    private final ReentrantLock stallLock = new ReentrantLock();   // not synchronized: pumps are virtual threads
+    private final Condition unstalled = stallLock.newCondition();
+
+    private final Counter upstreamBytes, downstreamBytes, resets;
+
+    public FaultProxy(int listenPort, String upstreamHost, int upstreamPort, MeterRegistry mr) throws IOException {
+        this.upstreamHost = upstreamHost;
+        this.upstreamPort = upstreamPort;
+        this.server = ServerSocketChannel.open().bind(new InetSocketAddress(listenPort));
+
+        this.upstreamBytes = Counter.builder("fault_proxy_bytes").tag("direction", "upstream").register(mr);
+        this.downstreamBytes = Counter.builder("fault_proxy_bytes").tag("direction", "downstream").register(mr);
+        this.resets = Counter.builder("fault_proxy_resets").register(mr);
+        Gauge.builder("fault_proxy_connections", links, Set::size).register(mr);
+        Gauge.builder("fault_proxy_toxic_active", this, p -> p.toxics.active() ? 1 : 0).register(mr);
+
+        Thread.ofVirtual().name("fault-proxy-accept").start(this::acceptLoop);
+    }
+
+    public int port() { return ((InetSocketAddress) server.socket().getLocalSocketAddress()).getPort(); }
+
+    public int connections() { return links.size(); }
+
+    public Toxics toxics() { return toxics; }
+
+    /** Switches every link to {@code t}; a reset drops the open connections right away. */
+    public void apply(Toxics t) {
+        toxics = t;
+        if (t.reset()) links.forEach(Link::reset);
+        stallLock.lock();
+        try {
+            unstalled.signalAll();
+        } finally {
+            stallLock.unlock();
+        }
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                if (server.isOpen()) System.err.println("[fault-proxy] accept: " + e.getMessage());
+                continue;
+            }
+            if (toxics.reset()) {
+                reset(client);
+                resets.increment();
+                continue;
+            }
+            Thread.ofVirtual().name("fault-proxy-link").start(() -> open(client));
+        }
+    }
+
+    private void open(SocketChannel client) {
+        SocketChannel upstream;
+        try {
+            upstream = SocketChannel.open(new InetSocketAddress(upstreamHost, upstreamPort));   // resolve per link
+        } catch (IOException e) {
+            System.err.println("[fault-proxy] upstream " + upstreamHost + ":" + upstreamPort + ": " + e.getMessage());
+            close(client);
+            return;
+        }
+        var link = new Link(client, upstream);
+        links.add(link);
+        Thread.ofVirtual().name("fault-proxy-up").start(() -> pump(link, client, upstream));
+        deliver(link, upstream, client);
+    }
+
+    /** Client to Postgres: no latency on this side, so one buffer read and written in turn. */
+    private void pump(Link link, SocketChannel from, SocketChannel to) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+        try {
+            while (from.read(buf) >= 0) {
+                buf.flip();
+                Toxics t = awaitUnstalled();
+                int n = buf.remaining();
+                write(to, buf, t.bandwidthBytesPerSec());
+                upstreamBytes.increment(n);
+                buf.clear();
+            }
+        } catch (IOException | InterruptedException e) {
+            // peer closed, or the link was reset / closed by the other side
+        } finally {
+            link.close();
+            links.remove(link);
+        }
+    }
+
+    /**
+     * Postgres to client. A reader thread stamps each chunk when it arrives and queues it; this thread delivers
+     * it at that stamp plus the latency. Buffers are allocated as the read-ahead grows, up to {@link #READ_AHEAD}
+     * bytes, and reused after delivery.
+     */
+    private void deliver(Link link, SocketChannel from, SocketChannel to) {
+        Semaphore budget = new Semaphore(READ_AHEAD / BUFFER);   // one permit per buffer read but not delivered
+        Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+        BlockingQueue<Chunk> ready = new LinkedBlockingQueue<>();
+
+        Thread reader = Thread.ofVirtual().name("fault-proxy-read").start(() -> {
+            try {
+                while (true) {
+                    budget.acquire();
+                    ByteBuffer buf = Optional.ofNullable(free.poll()).orElseGet(() -> ByteBuffer.allocateDirect(BUFFER));
+                    if (from.read(buf) < 0) break;
+                    ready.put(new Chunk(buf.flip(), System.nanoTime()));
+                }
+            } catch (IOException | InterruptedException e) {
+                // Postgres closed, or the link was reset / closed by the delivering side
+            } finally {
+                ready.offer(Chunk.END);
+            }
+        });
+        try {
+            for (Chunk c; (c = ready.take()) != Chunk.END; ) {
+                Toxics t = awaitUnstalled();
+                delay(t, c.arrivalNanos());
+                int n = c.buf().remaining();
+                write(to, c.buf(), t.bandwidthBytesPerSec());
+                downstreamBytes.increment(n);
+                free.add(c.buf().clear());
+                budget.release();
+            }
+        } catch (IOException | InterruptedException e) {
+            // client closed, or the link was reset
+        } finally {
+            link.close();
+            links.remove(link);
+            reader.interrupt();
+        }
+    }
+
+    private record Chunk(ByteBuffer buf, long arrivalNanos) {
+        static final Chunk END = new Chunk(null, 0);
+    }
+
+    private Toxics awaitUnstalled() throws InterruptedException {
+        Toxics t = toxics;
+        if (!t.stall()) return t;
+        stallLock.lock();
+        try {
+            while ((t = toxics).stall()) unstalled.await(100, TimeUnit.MILLISECONDS);
+            return t;
+        } finally {
+            stallLock.unlock();
+        }
+    }
+
+    /** Waits until {@code latency ± jitter} after the chunk arrived; time it already spent queued counts. */
+    private static void delay(Toxics t, long arrivalNanos) throws InterruptedException {
+        long ms = t.latencyMs();
+        if (t.jitterMs() > 0) ms += ThreadLocalRandom.current().nextLong(-t.jitterMs(), t.jitterMs() + 1);
+        long wait = arrivalNanos + TimeUnit.MILLISECONDS.toNanos(ms) - System.nanoTime();
+        if (wait > 0) Thread.sleep(Duration.ofNanos(wait));
+    }
+
+    /** Writes all of {@code buf}; with a bandwidth limit, in ~50 ms slices paced to that rate. */
+    private static void write(SocketChannel to, ByteBuffer buf, long bytesPerSec) throws IOException, InterruptedException {
+        if (bytesPerSec <= 0) {
+            while (buf.hasRemaining()) to.write(buf);
+            return;
+        }
+        int slice = (int) Math.max(1, Math.min(BUFFER, bytesPerSec / 20));
+        int limit = buf.limit();
+        while (buf.position() < limit) {
+            int n = Math.min(slice, limit - buf.position());
+            buf.limit(buf.position() + n);
+            while (buf.hasRemaining()) to.write(buf);
+            buf.limit(limit);
+            Thread.sleep(Math.max(1, n * 1000L / bytesPerSec));
+        }
+    }
+
+    private static void reset(SocketChannel ch) {
+        try {
+            ch.setOption(StandardSocketOptions.SO_LINGER, 0);   // close() then sends RST instead of FIN
+        } catch (IOException ignored) {
+            // already closed
+        }
+        close(ch);
+    }
+
+    private static void close(SocketChannel ch) {
+        try {
+            ch.close();
+        } catch (IOException ignored) {
+            // nothing to clean up
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        links.forEach(Link::close);
+    }
+
+    private final class Link {
+        final SocketChannel client, upstream;
+
+        Link(SocketChannel client, SocketChannel upstream) {
+            this.client = client;
+            this.upstream = upstream;
+        }
+
+        void reset() {
+            FaultProxy.reset(client);
+            FaultProxy.reset(upstream);
+            resets.increment();
+        }
+
+        void close() {
+            FaultProxy.close(client);
+            FaultProxy.close(upstream);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jm.runner.proxy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+import com.jm.runner.config.RunnerProperties;
+
+@Configuration
+@ConditionalOnProperty(prefix = "runner", name = "fault-proxy-upstream")
+public class FaultProxyConfig {
+
+    @Bean(destroyMethod = "close")
+    public FaultProxy faultProxy(RunnerProperties props, MeterRegistry mr) throws IOException {
+        String upstream = props.getFaultProxyUpstream();
+        int colon = upstream.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("runner.fault-proxy-upstream must be host:port");
+        var proxy = new FaultProxy(props.getFaultProxyPort(), upstream.substring(0, colon),
+                Integer.parseInt(upstream.substring(colon + 1)), mr);
+        System.out.println("[fault-proxy] :" + proxy.port() + " -> " + upstream);
+        return proxy;
+    }
+}
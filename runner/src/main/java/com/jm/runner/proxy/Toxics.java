@@ -0,0 +1,16 @@
+package com.jm.runner.proxy;
+
+/**
+ * What the fault proxy currently does to traffic. All links share one setting.
+ * @param latencyMs            added before each chunk sent back to the client (database responses)
+ * @param jitterMs             uniform +/- spread around the latency
+ * @param bandwidthBytesPerSec per link and direction; 0 = unlimited
+ * @param reset                existing links are reset (TCP RST) when applied, new ones as they connect
+ * @param stall                links stay open but nothing is forwarded
+ */
+public record Toxics(long latencyMs, long jitterMs, long bandwidthBytesPerSec, boolean reset, boolean stall) {
+
+    public static final Toxics NONE = new Toxics(0, 0, 0, false, false);
+
+    public boolean active() { return !equals(NONE); }
+}
@@ -0,0 +1,131 @@
+package com.jm.runner.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.HostConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.jm.runner.config.RunnerProperties;
+
+/**
+ * Starts throwaway copies of the backend container (same image, env and network as
+ * {@code runner.replica-template}) with per-run env overrides, and removes them again.
+ * Used for scale-out replicas and for runs with their own JVM options.
+ * <p>
+ * Clones are labelled with their run ({@code bench.run}), so removal only touches that run's containers and
+ * concurrent runs keep theirs. Clones from before the role rename carry {@code bench.role=replica}.
+ * <p>
+ * Removal stops a clone first (SIGTERM, {@code clone-stop-timeout} before SIGKILL), so Spring shuts down cleanly:
+ * Hikari closes its connections and a journal-mode clone drains its acknowledged orders into Postgres.
+ */
+@Component
+public class BackendClones {
+
+    static final String ROLE_LABEL = "bench.role";
+    static final String ROLE = "clone";
+    static final Set<String> ROLES = Set.of(ROLE, "replica");   // "replica": started by older runners
+    static final String RUN_LABEL = "bench.run";
+
+    private final DockerClient docker;
+    private final RunnerProperties props;
+    private final Set<String> runs = ConcurrentHashMap.newKeySet();   // runs of this process with clones up
+
+    public BackendClones(DockerClient docker, RunnerProperties props) {
+        this.docker = docker;
+        this.props = props;
+    }
+
+    /** The template's env as a map, so callers can read defaults such as SPRING_DB_POOL_SIZE. */
+    public Map<String,String> templateEnv() {
+        var template = docker.inspectContainerCmd(props.getReplicaTemplate()).exec();
+        Map<String,String> env = new LinkedHashMap<>();
+        for (String e : Optional.ofNullable(template.getConfig().getEnv()).orElse(new String[0])) {
+            int eq = e.indexOf('=');
+            if (eq > 0) env.put(e.substring(0, eq), e.substring(eq + 1));
+        }
+        return env;
+    }
+
+    /**
+     * Starts one clone per name (hostname = name, optional shared network alias and CPU limit) and
+     * blocks until each answers the health probe. Returns the names in order.
+     */
+    public List<String> start(String runId, List<String> names, Map<String,String> env, String alias, Double cpus)
+            throws Exception {
+        var template = docker.inspectContainerCmd(props.getReplicaTemplate()).exec();
+        String image = template.getConfig().getImage();
+        String network = template.getNetworkSettings().getNetworks().keySet().iterator().next();
+
+        claim(runId, names);
+
+        List<String> envList = env.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).toList();
+        var hostConfig = HostConfig.newHostConfig().withNetworkMode(network);
+        if (cpus != null) hostConfig.withNanoCPUs(Math.round(cpus * 1e9));
+
+        for (String name : names) {
+            var create = docker.createContainerCmd(image)
+                    .withName(name)
+                    .withHostName(name)
+                    .withEnv(envList)
+                    .withLabels(Map.of(ROLE_LABEL, ROLE, RUN_LABEL, runId))
+                    .withHostConfig(hostConfig);
+            if (alias != null) create.withAliases(alias);
+            docker.startContainerCmd(create.exec().getId()).exec();
+        }
+
+        long t0 = System.nanoTime();
+        for (String name : names)
+            HealthProbe.awaitOk(baseUrl(name) + props.getStartupProbePath(), t0, props.getStartupTimeout());
+        return names;
+    }
+
+    public String baseUrl(String name) { return "http://" + name + ":" + props.getBackendPort(); }
+
+    /** Marks {@code runId} live, so {@link #removeLeftovers} spares it; clone names are fixed, a concurrent run may hold them. */
+    void claim(String runId, List<String> names) {
+        runs.add(runId);
+        for (var c : clones()) {
+            String owner = c.getLabels().get(RUN_LABEL);
+            boolean clash = Arrays.stream(c.getNames()).anyMatch(n -> names.contains(n.replaceFirst("^/", "")));
+            if (clash && !runId.equals(owner) && runs.contains(owner))
+                throw new IllegalStateException(String.join(",", c.getNames()) + " is in use by run " + owner);
+        }
+    }
+
+    /** Removes the clones of {@code runId}, running or not. */
+    public void remove(String runId) {
+        for (var c : clones())
+            if (runId.equals(c.getLabels().get(RUN_LABEL))) stopAndRemove(c);
+        runs.remove(runId);
+    }
+
+    /** Removes clones no run of this process owns: leftovers of a crashed runner would still hold DB connections. */
+    public void removeLeftovers() {
+        for (var c : clones())
+            if (!runs.contains(c.getLabels().get(RUN_LABEL))) stopAndRemove(c);
+    }
+
+    private void stopAndRemove(Container c) {
+        if ("running".equals(c.getState())) {
+            try {
+                docker.stopContainerCmd(c.getId()).withTimeout((int) props.getCloneStopTimeout().toSeconds()).exec();
+            } catch (NotModifiedException alreadyStopped) {
+                // exited in the meantime
+            }
+        }
+        docker.removeContainerCmd(c.getId()).withForce(true).exec();
+    }
+
+    private List<Container> clones() {
+        return docker.listContainersCmd()
+                .withShowAll(true)
+                .withLabelFilter(List.of(ROLE_LABEL))
+                .exec().stream()
+                .filter(c -> ROLES.contains(c.getLabels().get(ROLE_LABEL)))
+                .toList();
+    }
+}
@@ -0,0 +1,126 @@
+package com.jm.runner.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.jm.runner.model.FaultStep;
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.proxy.FaultProxy;
+import com.jm.runner.proxy.Toxics;
+
+/**
+ * Plays a run's {@code faults} schedule on the fault proxy: each step's toxics go on at {@code at} after the
+ * measured load starts and come off after {@code duration}. The actual on/off instants are written back into
+ * the steps, so recovery time can be read against the run's Prometheus series. Whatever is still active
+ * when the run ends is cleared.
+ */
+@Service
+@Order(3)   // after the backends are up; the schedule itself starts on onMeasureStart
+public class FaultService implements RunHook, DisposableBean {
+
+    private final ObjectProvider<FaultProxy> proxy;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("fault-schedule").daemon().factory());
+    private final Map<String, List<ScheduledFuture<?>>> scheduled = new ConcurrentHashMap<>();
+
+    public FaultService(ObjectProvider<FaultProxy> proxy) {
+        this.proxy = proxy;
+    }
+
+    /** Checks durations, values and that steps don't overlap; called when the run is enqueued. */
+    public static void validate(List<FaultStep> steps) {
+        Duration free = Duration.ZERO;
+        for (FaultStep s : steps.stream().sorted(Comparator.comparing(FaultService::at)).toList()) {
+            if (at(s).isNegative()) throw new IllegalArgumentException("fault at must not be negative");
+            if (!duration(s).isPositive()) throw new IllegalArgumentException("fault duration must be positive");
+            if (at(s).compareTo(free) < 0) throw new IllegalArgumentException("fault steps overlap at " + s.at);
+            if (negative(s.latencyMs) || negative(s.jitterMs) || negative(s.bandwidthKBps))
+                throw new IllegalArgumentException("fault latencyMs, jitterMs and bandwidthKBps must not be negative");
+            if (!toxics(s).active())
+                throw new IllegalArgumentException("fault step at " + s.at + " sets no toxic");
+            free = at(s).plus(duration(s));
+        }
+    }
+
+    static Toxics toxics(FaultStep s) {
+        return new Toxics(
+                Optional.ofNullable(s.latencyMs).orElse(0L),
+                Optional.ofNullable(s.jitterMs).orElse(0L),
+                Optional.ofNullable(s.bandwidthKBps).orElse(0L) * 1000,
+                Boolean.TRUE.equals(s.reset),
+                Boolean.TRUE.equals(s.stall));
+    }
+
+    @Override
+    public void beforeRun(RunRecord rec) {
+        if (rec.faults == null) return;
+        FaultProxy p = proxy.getIfAvailable();
+        if (p == null) throw new IllegalStateException("fault proxy is not running");
+        if (p.connections() == 0)
+            System.out.println("[faults " + rec.id + "] no connections through the proxy; is the backend's DB_HOST the runner?");
+        p.apply(Toxics.NONE);
+    }
+
+    @Override
+    public void onMeasureStart(RunRecord rec) {
+        if (rec.faults == null) return;
+        FaultProxy p = proxy.getObject();
+        List<ScheduledFuture<?>> tasks = new ArrayList<>();
+        // sorted, and a step's clear is queued before the next step's apply, so equal times run in that order
+        for (FaultStep s : rec.faults.stream().sorted(Comparator.comparing(FaultService::at)).toList()) {
+            Toxics t = toxics(s);
+            long on = at(s).toMillis(), off = on + duration(s).toMillis();
+            tasks.add(timer.schedule(() -> {
+                p.apply(t);
+                s.appliedAt = Instant.now();
+                System.out.println("[faults " + rec.id + "] on: " + t);
+            }, on, TimeUnit.MILLISECONDS));
+            tasks.add(timer.schedule(() -> {
+                p.apply(Toxics.NONE);
+                s.clearedAt = Instant.now();
+                System.out.println("[faults " + rec.id + "] off");
+            }, off, TimeUnit.MILLISECONDS));
+        }
+        scheduled.put(rec.id, tasks);
+    }
+
+    @Override
+    public void afterRun(RunRecord rec) {
+        if (rec.faults == null) return;
+        Optional.ofNullable(scheduled.remove(rec.id)).ifPresent(tasks -> tasks.forEach(f -> f.cancel(false)));
+        FaultProxy p = proxy.getIfAvailable();
+        if (p != null && p.toxics().active()) {
+            p.apply(Toxics.NONE);
+            Instant now = Instant.now();
+            rec.faults.stream().filter(s -> s.appliedAt != null && s.clearedAt == null).forEach(s -> s.clearedAt = now);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    private static Duration at(FaultStep s) { return parse(s.at, "at"); }
+
+    private static Duration duration(FaultStep s) { return parse(s.duration, "duration"); }
+
+    private static Duration parse(String v, String field) {
+        if (v == null) throw new IllegalArgumentException("fault " + field + " is required");
+        try {
+            return DurationStyle.detectAndParse(v);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("fault " + field + " must look like 30s or 2m: " + v);
+        }
+    }
+
+    private static boolean negative(Long v) { return v != null && v < 0; }
+}
@@ -0,0 +1,34 @@
+package com.jm.runner.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/** Polls a backend URL until it answers 200; used wherever the runner (re)starts backend containers. */
+final class HealthProbe {
+
+    private static final Duration INTERVAL = Duration.ofMillis(20);
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private HealthProbe() {}
+
+    /** Blocks until {@code url} returns 200 or {@code timeout} (counted from {@code startNanos}) passes. */
+    static void awaitOk(String url, long startNanos, Duration timeout)
+            throws IOException, InterruptedException, TimeoutException {
+        var req = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).GET().build();
+        long deadline = startNanos + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (HTTP.send(req, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException notListeningYet) {
+                // connection refused / reset while the JVM boots or restores
+            }
+            Thread.sleep(INTERVAL);
+        }
+        throw new TimeoutException(url + " not ready after " + timeout);
+    }
+}
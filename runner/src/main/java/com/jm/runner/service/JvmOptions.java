@@ -0,0 +1,71 @@
+package com.jm.runner.service;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import com.jm.runner.model.JvmConfig;
+
+/** Validates a {@link JvmConfig} and turns it into JAVA_OPTS plus a short tag. */
+final class JvmOptions {
+
+    private static final Map<String,String> GC = Map.of(
+            "g1", "-XX:+UseG1GC",
+            "zgc", "-XX:+UseZGC -XX:+ZGenerational",
+            "parallel", "-XX:+UseParallelGC",
+            "serial", "-XX:+UseSerialGC",
+            "shenandoah", "-XX:+UseShenandoahGC");
+
+    private static final Pattern HEAP = Pattern.compile("^[1-9][0-9]{0,5}[mMgG]$");
+    // -Xlog:<what>[:stdout|stderr[:decorators]]; file outputs (file=x, or a bare file name) are not allowed
+    private static final Pattern OPTION = Pattern.compile("^-(XX:[+-]?[A-Za-z0-9]+(=[A-Za-z0-9._:,%/-]+)?|D[a-zA-Z0-9._-]+=[A-Za-z0-9._:,/-]*|Xlog:[A-Za-z0-9.,=*+_-]+(:(stdout|stderr)?(:[A-Za-z0-9,]*)?)?|Xss[0-9]+[kKmM])$");
+    // run arbitrary commands or read/write arbitrary files inside the backend container
+    private static final Pattern FORBIDDEN = Pattern.compile("(?i)On(OutOfMemory)?Error|HeapDumpPath|ErrorFile|Flags=|CRaC|SharedArchiveFile"
+            + "|LogFile|ArchiveClassesAtExit|PerfDataSaveFile|CompileCommandFile|ReplayDataFile|logging\\.file");
+    private static final Pattern TAG = Pattern.compile("^[A-Za-z0-9._-]{1,64}$");
+
+    private JvmOptions() {}
+
+    /** Validates and returns JAVA_OPTS; throws IllegalArgumentException on anything unsafe or unknown. */
+    static String javaOpts(JvmConfig c) {
+        List<String> opts = new ArrayList<>();
+        if (c.gc != null) {
+            String flags = GC.get(c.gc.toLowerCase(Locale.ROOT));
+            if (flags == null) throw new IllegalArgumentException("unknown gc: " + c.gc + " (known: " + new TreeSet<>(GC.keySet()) + ")");
+            opts.add(flags);
+        }
+        if (c.heap != null) {
+            if (!HEAP.matcher(c.heap).matches()) throw new IllegalArgumentException("heap must look like 512m or 2g");
+            opts.add("-Xms" + c.heap + " -Xmx" + c.heap);
+        }
+        if (c.vtParallelism != null) {
+            if (c.vtParallelism < 1 || c.vtParallelism > 256) throw new IllegalArgumentException("vtParallelism must be 1..256");
+            opts.add("-Djdk.virtualThreadScheduler.parallelism=" + c.vtParallelism);
+        }
+        if (c.vtMaxPoolSize != null) {
+            if (c.vtMaxPoolSize < 1 || c.vtMaxPoolSize > 32767) throw new IllegalArgumentException("vtMaxPoolSize must be 1..32767");
+            opts.add("-Djdk.virtualThreadScheduler.maxPoolSize=" + c.vtMaxPoolSize);
+        }
+        for (String o : Optional.ofNullable(c.options).orElse(List.of())) {
+            if (o == null || !OPTION.matcher(o).matches() || FORBIDDEN.matcher(o).find())
+                throw new IllegalArgumentException("JVM option not allowed: " + o);
+            opts.add(o);
+        }
+        return String.join(" ", opts);
+    }
+
+    /** The given tag, or one derived from gc/heap/scheduler settings, e.g. "zgc-2g-p4". */
+    static String tag(JvmConfig c) {
+        if (c.tag != null) {
+            if (!TAG.matcher(c.tag).matches()) throw new IllegalArgumentException("jvm tag must match " + TAG.pattern());
+            return c.tag;
+        }
+        List<String> parts = new ArrayList<>();
+        parts.add(c.gc == null ? "default" : c.gc.toLowerCase(Locale.ROOT));
+        if (c.heap != null) parts.add(c.heap.toLowerCase(Locale.ROOT));
+        if (c.vtParallelism != null) parts.add("p" + c.vtParallelism);
+        if (c.vtMaxPoolSize != null) parts.add("mp" + c.vtMaxPoolSize);
+        if (c.options != null && !c.options.isEmpty())
+            parts.add(Integer.toHexString(String.join(" ", c.options).hashCode()));
+        return String.join("-", parts);
+    }
+}
@@ -0,0 +1,63 @@
+package com.jm.runner.service;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.JvmConfig;
+import com.jm.runner.model.RunRecord;
+
+/**
+ * Runs with {@code jvm} options get a fresh backend started with them (a clone of the backend container
+ * named {@code runner.jvm-container}), so GC, heap and carrier-pool settings can be compared without
+ * touching the compose service. The backend tags every series with {@code jvm} (JVM_CONFIG_TAG); scale-out
+ * runs apply the same options to each replica instead (ReplicaService).
+ */
+@Service
+@Order(1)
+public class JvmService implements RunHook {
+
+    private final BackendClones clones;
+    private final RunnerProperties props;
+
+    public JvmService(BackendClones clones, RunnerProperties props) {
+        this.clones = clones;
+        this.props = props;
+    }
+
+    /** Validates the config and fills in its tag; called when the run is enqueued. */
+    public static void resolve(JvmConfig jvm) {
+        JvmOptions.javaOpts(jvm);
+        jvm.tag = JvmOptions.tag(jvm);
+    }
+
+    /** Appends the options to the template's JAVA_OPTS (later flags win) and sets the tag. */
+    static void apply(JvmConfig jvm, Map<String,String> env) {
+        String base = env.getOrDefault("JAVA_OPTS", "");
+        jvm.javaOpts = (base + " " + JvmOptions.javaOpts(jvm)).trim();
+        env.put("JAVA_OPTS", jvm.javaOpts);
+        env.put("JVM_CONFIG_TAG", jvm.tag);
+    }
+
+    @Override
+    public void beforeRun(RunRecord rec) throws Exception {
+        if (rec.jvm == null || rec.scaleOut != null) return;
+
+        clones.removeLeftovers();
+        Map<String,String> env = clones.templateEnv();
+        env.put("RUN_ID", rec.runLabel);
+        apply(rec.jvm, env);
+
+        long t0 = System.nanoTime();
+        clones.start(rec.id, List.of(props.getJvmContainer()), env, null, null);
+        System.out.println("[jvm " + rec.id + "] " + rec.jvm.tag + " healthy after "
+                + (System.nanoTime() - t0) / 1_000_000 + " ms: " + rec.jvm.javaOpts);
+    }
+
+    @Override
+    public void afterRun(RunRecord rec) {
+        if (rec.jvm != null && rec.scaleOut == null) clones.remove(rec.id);
+    }
+}
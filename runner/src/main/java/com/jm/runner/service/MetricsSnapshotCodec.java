@@ -0,0 +1,126 @@
+package com.jm.runner.service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.jm.runner.model.MetricSeries;
+import com.jm.runner.model.MetricsSnapshot;
+
+/**
+ * Compact columnar file for a run's Prometheus snapshot ({@code <id>.metrics.bin}, gzip-wrapped).
+ *
+ * <pre>
+ * "STBM" version:u8 runId runLabel start:ms end:ms step:ms seriesCount:varint
+ * per series: query labelCount:varint (key value)* n:varint
+ *             timestamps: first:varlong then n-1 deltas:varlong
+ *             values:     n x varlong(doubleBits XOR previousBits)
+ * </pre>
+ * Timestamps sit on the step grid, so deltas are tiny; XOR with the previous value is 0 for flat
+ * gauges (pool sizes, pending counts), which is most of what we keep.
+ */
+final class MetricsSnapshotCodec {
+
+    private static final byte[] MAGIC = {'S', 'T', 'B', 'M'};
+    private static final int VERSION = 1;
+
+    private MetricsSnapshotCodec() {}
+
+    static void write(MetricsSnapshot s, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(s.runId);
+            out.writeUTF(s.runLabel);
+            out.writeLong(s.start.toEpochMilli());
+            out.writeLong(s.end.toEpochMilli());
+            out.writeLong(s.step.toMillis());
+            writeVarLong(out, s.series.size());
+
+            for (var m : s.series) {
+                out.writeUTF(m.query);
+                writeVarLong(out, m.labels.size());
+                for (var e : m.labels.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeUTF(e.getValue());
+                }
+                int n = m.timestamps.length;
+                writeVarLong(out, n);
+
+                long prevTs = 0;
+                for (int i = 0; i < n; i++) {
+                    writeVarLong(out, m.timestamps[i] - prevTs);
+                    prevTs = m.timestamps[i];
+                }
+                long prevBits = 0;
+                for (int i = 0; i < n; i++) {
+                    long bits = Double.doubleToRawLongBits(m.values[i]);
+                    writeVarLong(out, bits ^ prevBits);
+                    prevBits = bits;
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static MetricsSnapshot read(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            byte[] magic = in.readNBytes(4);
+            if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION)
+                throw new IOException("not a metrics snapshot: " + file);
+
+            var s = new MetricsSnapshot();
+            s.runId = in.readUTF();
+            s.runLabel = in.readUTF();
+            s.start = Instant.ofEpochMilli(in.readLong());
+            s.end = Instant.ofEpochMilli(in.readLong());
+            s.step = Duration.ofMillis(in.readLong());
+
+            int count = (int) readVarLong(in);
+            s.series = new ArrayList<>(count);
+            for (int k = 0; k < count; k++) {
+                String query = in.readUTF();
+                int labelCount = (int) readVarLong(in);
+                var labels = new TreeMap<String,String>();
+                for (int i = 0; i < labelCount; i++) labels.put(in.readUTF(), in.readUTF());
+
+                int n = (int) readVarLong(in);
+                long[] ts = new long[n];
+                double[] vs = new double[n];
+                long prevTs = 0;
+                for (int i = 0; i < n; i++) ts[i] = prevTs += readVarLong(in);
+                long prevBits = 0;
+                for (int i = 0; i < n; i++) {
+                    prevBits ^= readVarLong(in);
+                    vs[i] = Double.longBitsToDouble(prevBits);
+                }
+                s.series.add(new MetricSeries(query, labels, ts, vs));
+            }
+            return s;
+        }
+    }
+
+    // unsigned LEB128
+    private static void writeVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("malformed varint");
+    }
+}
@@ -0,0 +1,107 @@
+package com.jm.runner.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.MetricSeries;
+import com.jm.runner.model.MetricsSnapshot;
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.prometheus.PrometheusClient;
+
+/**
+ * After each run, pulls the configured PromQL expressions over the run window from Prometheus and
+ * stores them next to the k6 summary, so results outlive Prometheus retention.
+ * <p>
+ * Clones (JVM-option and scale-out runs) are started with the run label as RUN_ID. The compose backend is
+ * not: its series keep {@code runner.backend-run-label}. For runs on it, a query that comes back empty under
+ * the run label is retried under that label, which is what backend series need; k6 series match first time.
+ */
+@Service
+public class MetricsSnapshotService implements RunHook {
+
+    private static final int MAX_POINTS = 10_000;   // Prometheus rejects > 11k points per series
+
+    private final PrometheusClient prometheus;
+    private final RunnerProperties props;
+
+    public MetricsSnapshotService(PrometheusClient prometheus, RunnerProperties props) {
+        this.prometheus = prometheus;
+        this.props = props;
+    }
+
+    @Override
+    public void afterRun(RunRecord rec) throws IOException {
+        if (props.getPrometheusUrl() == null || props.getPrometheusUrl().isBlank()) return;
+        if (props.getMetricsQueries().isEmpty() || rec.start == null || rec.end == null) return;
+
+        // measured window only: restarts and k6 warm-up before measureStart are left out. The backend tags
+        // warm-up and measured requests alike, so after a warm-up skip one rate window, whose points would
+        // still average in warm-up samples.
+        Instant from = rec.measureStart != null ? rec.measureStart : rec.start;
+        if (rec.measureStart != null && rec.warmup != null) {
+            Instant settled = from.plus(props.getMetricsRateWindow());
+            if (settled.isBefore(rec.end)) from = settled;
+        }
+        Duration step = step(from, rec.end);
+        String fallback = sharedBackend(rec) && !rec.runLabel.equals(props.getBackendRunLabel())
+                ? props.getBackendRunLabel() : null;
+        List<MetricSeries> series = new ArrayList<>();
+        for (var q : props.getMetricsQueries().entrySet()) {
+            String expr = q.getValue().replace("$run", PrometheusClient.labelValue(rec.runLabel));
+            try {
+                var got = prometheus.queryRange(q.getKey(), expr, from, rec.end, step);
+                if (got.isEmpty() && fallback != null && q.getValue().contains("$run"))
+                    got = prometheus.queryRange(q.getKey(), q.getValue().replace("$run", PrometheusClient.labelValue(fallback)),
+                            from, rec.end, step);
+                series.addAll(got);
+            } catch (RuntimeException e) {
+                // one bad expression shouldn't cost the rest of the snapshot
+                System.err.println("[metrics " + rec.id + "] " + q.getKey() + ": " + e.getMessage());
+            }
+        }
+
+        var snap = new MetricsSnapshot();
+        snap.runId = rec.id;
+        snap.runLabel = rec.runLabel;
+        snap.start = from;
+        snap.end = rec.end;
+        snap.step = step;
+        snap.series = series;
+
+        Path file = file(rec.id);
+        Files.createDirectories(file.getParent());
+        MetricsSnapshotCodec.write(snap, file);
+        rec.metricsPath = file.toString();
+    }
+
+    /** Where the snapshot of run {@code id} is stored; also found there after a runner restart. */
+    public Path file(String id) {
+        return Path.of(props.getResultsDir(), id + ".metrics.bin");
+    }
+
+    public MetricsSnapshot read(RunRecord rec) throws IOException {
+        return read(Path.of(rec.metricsPath));
+    }
+
+    public MetricsSnapshot read(Path file) throws IOException {
+        return MetricsSnapshotCodec.read(file);
+    }
+
+    // no clone of its own: the load went to a compose backend (plain or a startup mode)
+    private static boolean sharedBackend(RunRecord rec) {
+        return rec.jvm == null && rec.scaleOut == null;
+    }
+
+    // downsample: configured step, widened so long soaks stay under the per-series point limit
+    private Duration step(Instant from, Instant to) {
+        long windowMs = Math.max(1, Duration.between(from, to).toMillis());
+        long minStepMs = (windowMs + MAX_POINTS - 1) / MAX_POINTS;
+        return Duration.ofMillis(Math.max(props.getMetricsStep().toMillis(), minStepMs));
+    }
+}
@@ -0,0 +1,66 @@
+package com.jm.runner.service;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.model.ScaleOutStats;
+import com.jm.runner.config.RunnerProperties;
+
+/**
+ * Scale-out runs: starts N fresh replicas cloned from the single backend's container config, all sharing
+ * the same Postgres and one network alias that the load balancer resolves, and removes them afterwards.
+ * Each replica gets the run label as RUN_ID and its own hostname, so its series carry {@code run} and
+ * {@code host} tags. The replicas x pool size product is recorded against Postgres max_connections.
+ */
+@Service
+@Order(1)
+public class ReplicaService implements RunHook {
+
+    private final BackendClones clones;
+    private final RunnerProperties props;
+
+    public ReplicaService(BackendClones clones, RunnerProperties props) {
+        this.clones = clones;
+        this.props = props;
+    }
+
+    @Override
+    public void beforeRun(RunRecord rec) throws Exception {
+        ScaleOutStats s = rec.scaleOut;
+        if (s == null) return;
+
+        clones.removeLeftovers();
+
+        Map<String,String> env = clones.templateEnv();
+        env.put("RUN_ID", rec.runLabel);
+        if (s.poolSizePerReplica != null) env.put("SPRING_DB_POOL_SIZE", String.valueOf(s.poolSizePerReplica));
+        if (rec.jvm != null) JvmService.apply(rec.jvm, env);
+        s.poolSizePerReplica = parseInt(env.get("SPRING_DB_POOL_SIZE"));
+        s.totalDbConnections = s.poolSizePerReplica == null ? null : s.replicas * s.poolSizePerReplica;
+        if (s.totalDbConnections != null && s.totalDbConnections > s.pgMaxConnections)
+            System.out.println("[replicas " + rec.id + "] " + s.totalDbConnections + " pooled connections > Postgres max_connections "
+                    + s.pgMaxConnections + "; expect connection failures once pools fill");
+
+        List<String> names = IntStream.rangeClosed(1, s.replicas)
+                .mapToObj(i -> props.getReplicaAlias() + "-" + i)
+                .toList();
+        s.containers = clones.start(rec.id, names, env, props.getReplicaAlias(), s.cpusPerReplica);
+
+        Thread.sleep(props.getReplicaSettle().toMillis());   // let the LB resolve and health-check them
+        System.out.println("[replicas " + rec.id + "] " + s.replicas + " replicas up behind " + s.lbAlgorithm);
+    }
+
+    @Override
+    public void afterRun(RunRecord rec) {
+        if (rec.scaleOut != null) clones.remove(rec.id);
+    }
+
+    private static Integer parseInt(String v) {
+        try { return v == null ? null : Integer.valueOf(v.trim()); }
+        catch (NumberFormatException e) { return null; }
+    }
+}
@@ -0,0 +1,17 @@
+package com.jm.runner.service;
+
+import com.jm.runner.model.RunRecord;
+
+/**
+ * Extension point around a single k6 run. Hooks run on the runner worker thread, in bean order;
+ * {@code beforeRun} failing fails the run, {@code afterRun} failures are logged and ignored.
+ * {@code onMeasureStart} fires right before the measured k6 load starts (after any warm-up).
+ */
+public interface RunHook {
+
+    default void beforeRun(RunRecord rec) throws Exception {}
+
+    default void onMeasureStart(RunRecord rec) throws Exception {}
+
+    default void afterRun(RunRecord rec) throws Exception {}
+}
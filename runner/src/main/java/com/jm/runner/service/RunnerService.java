@@ -20,6 +20,8 @@ import com.jm.runner.api.StartRunRequest;
 import com.jm.runner.config.RunnerProperties;
 import com.jm.runner.model.RunRecord;
 import com.jm.runner.model.RunStatus;
+import com.jm.runner.model.ScaleOutStats;
+import com.jm.runner.model.StartupStats;
 
 @Service
 public class RunnerService {
@@ -30,13 +32,17 @@ public class RunnerService {
     private volatile int active = 0;
     private final Map<String, RunRecord> runs = new ConcurrentHashMap<>();
     private final ExecutorService execPool;
+    private final List<RunHook> hooks;
 
     private static final Pattern SAFE_SCRIPT =
             Pattern.compile("^[a-zA-Z0-9._\\-\\/]+\\.js$");
+    private static final Pattern K6_DURATION = Pattern.compile("^[1-9][0-9]*(s|m)$");
+    public static final Pattern RUN_ID = Pattern.compile("^[0-9a-f-]{10}$");   // the UUID prefix enqueue assigns
 
-    public RunnerService(DockerClient docker, RunnerProperties props, MeterRegistry mr) {
+    public RunnerService(DockerClient docker, RunnerProperties props, MeterRegistry mr, List<RunHook> hooks) {
         this.docker = docker;
         this.props = props;
+        this.hooks = hooks;
         this.started = mr.counter("k6_runs_started_total");
         this.succeeded = mr.counter("k6_runs_succeeded_total");
         this.failed = mr.counter("k6_runs_failed_total");
@@ -64,13 +70,51 @@ public class RunnerService {
 
         Map<String,String> params = Optional.ofNullable(req.params).orElseGet(HashMap::new);
 
+        // A startup mode or a scale-out run targets its own backend instead of the default one
+        String allowed = props.getAllowBaseUrl();
+        if (req.replicas != null) {
+            if (req.startupMode != null)
+                throw new IllegalArgumentException("startupMode and replicas cannot be combined");
+            if (req.replicas < 1 || req.replicas > props.getMaxReplicas())
+                throw new IllegalArgumentException("replicas must be between 1 and " + props.getMaxReplicas());
+            if (req.replicaPoolSize != null && req.replicaPoolSize < 1)
+                throw new IllegalArgumentException("replicaPoolSize must be positive");
+            if (req.replicaCpus != null && req.replicaCpus <= 0)
+                throw new IllegalArgumentException("replicaCpus must be positive");
+            String algorithm = Optional.ofNullable(req.lbAlgorithm).orElse("roundrobin");
+            allowed = props.getLbBaseUrls().get(algorithm);
+            if (allowed == null)
+                throw new IllegalArgumentException("unknown lbAlgorithm: " + algorithm
+                        + " (known: " + props.getLbBaseUrls().keySet() + ")");
+        } else if (req.jvm != null) {
+            if (req.startupMode != null)
+                throw new IllegalArgumentException("startupMode and jvm cannot be combined");
+            allowed = "http://" + props.getJvmContainer() + ":" + props.getBackendPort();
+        } else if (req.startupMode != null) {
+            allowed = props.startupBaseUrl(req.startupMode);
+            if (allowed == null)
+                throw new IllegalArgumentException("unknown startupMode: " + req.startupMode
+                        + " (known: " + props.getStartupModes().keySet() + ")");
+        }
+
         // Enforce BASE_URL allow-list
-        String baseUrl = params.getOrDefault("BASE_URL", props.getAllowBaseUrl());
-        if (!baseUrl.equals(props.getAllowBaseUrl()))
-            throw new IllegalArgumentException("BASE_URL must be " + props.getAllowBaseUrl());
+        String baseUrl = params.getOrDefault("BASE_URL", allowed);
+        if (!baseUrl.equals(allowed))
+            throw new IllegalArgumentException("BASE_URL must be " + allowed);
 
         params.put("BASE_URL", baseUrl);
 
+        if (req.jvm != null) JvmService.resolve(req.jvm);
+        if (req.warmup != null && !K6_DURATION.matcher(req.warmup).matches())
+            throw new IllegalArgumentException("warmup must look like 90s or 2m");
+        if (req.faults != null && !req.faults.isEmpty()) {
+            if (props.getFaultProxyUpstream() == null || props.getFaultProxyUpstream().isBlank())
+                throw new IllegalArgumentException("faults need the fault proxy (runner.fault-proxy-upstream)");
+            if (props.getMaxConcurrency() > 1)   // toxics apply to the whole proxy, i.e. to every run at once
+                throw new IllegalArgumentException("faults need runner.max-concurrency=1; the proxy's toxics would hit concurrent runs");
+            FaultService.validate(req.faults);
+        }
+
         String id = UUID.randomUUID().toString().substring(0,10);
         String summaryPath = props.getResultsDir() + "/" + id + ".json";
 
@@ -81,6 +125,25 @@ public class RunnerService {
         rec.start = Instant.now();
         rec.status = RunStatus.QUEUED;
         rec.summaryPath = summaryPath;
+        rec.runLabel = params.getOrDefault("RUN_ID", id);   // value of the `run` tag on k6/backend metrics
+        if (req.startupMode != null) {
+            rec.startup = new StartupStats();
+            rec.startup.mode = req.startupMode;
+            rec.startup.container = props.getStartupModes().get(req.startupMode);
+        }
+        if (req.replicas != null) {
+            rec.scaleOut = new ScaleOutStats();
+            rec.scaleOut.replicas = req.replicas;
+            rec.scaleOut.lbAlgorithm = Optional.ofNullable(req.lbAlgorithm).orElse("roundrobin");
+            rec.scaleOut.poolSizePerReplica = req.replicaPoolSize;
+            rec.scaleOut.cpusPerReplica = req.replicaCpus;
+            rec.scaleOut.pgMaxConnections = props.getPgMaxConnections();
+        }
+        rec.jvm = req.jvm;
+        rec.warmup = req.warmup;
+        if (req.warmup != null)   // the measured script unless runner.warmup-script names another one
+            rec.warmupScript = Optional.ofNullable(props.getWarmupScript()).filter(w -> !w.isBlank()).orElse(req.script);
+        rec.faults = req.faults == null || req.faults.isEmpty() ? null : req.faults;
         runs.put(id, rec);
 
         execPool.submit(() -> runOne(rec));
@@ -93,42 +156,35 @@ public class RunnerService {
         started.increment();
         active++;
         try {
+            for (var h : hooks) h.beforeRun(rec);
+
             // Build env list for docker exec
             List<String> envList = new ArrayList<>();
             envList.add("K6_PROMETHEUS_RW_SERVER_URL=" + props.getPromRemoteWriteUrl());
             envList.add("K6_COMPATIBILITY_MODE=extended");
+            envList.add("RUN_ID=" + rec.runLabel);
+            if (rec.jvm != null) envList.add("JVM_CONFIG_TAG=" + rec.jvm.tag);
+            if (rec.serverEngine != null) envList.add("SERVER_ENGINE=" + rec.serverEngine);
             for (var e : rec.params.entrySet()) {
                 envList.add(e.getKey() + "=" + String.valueOf(e.getValue()));
             }
 
-            String scriptPath = props.getScriptsDir() + "/" + rec.script;
-
-            ExecCreateCmdResponse execCreate = docker.execCreateCmd(props.getK6Container())
-                    .withAttachStdout(true).withAttachStderr(true)
-                    .withEnv(envList)
-                    .withCmd(
-                            "k6","run",
-                            "--compatibility-mode=extended",
-                            "-o","experimental-prometheus-rw",
-                            "--summary-export", rec.summaryPath,
-                            scriptPath
-                    )
-                    .exec();
-
-            var latch = new CountDownLatch(1);
-            docker.execStartCmd(execCreate.getId())
-                    .exec(new Adapter<Frame>() {
-                        @Override public void onNext(Frame frame) {
-                            System.out.print("[k6 " + rec.id + "] " + new String(frame.getPayload()));
-                        }
-                        @Override public void onComplete() { latch.countDown(); }
-                        @Override public void onError(Throwable t) { t.printStackTrace(); latch.countDown(); }
-                    });
-            latch.await();
-
-            var execId = execCreate.getId();
-            var inspect = docker.inspectExecCmd(execId).exec();
-            Integer code = inspect.getExitCode();
+            if (rec.warmup != null) {
+                // separate run label so k6 series of the warm-up don't mix into the measured run
+                List<String> warmEnv = new ArrayList<>(envList);
+                warmEnv.replaceAll(e -> e.startsWith("RUN_ID=") ? "RUN_ID=" + rec.runLabel + "-warmup" : e);
+                warmEnv.removeIf(e -> e.startsWith("DURATION="));
+                warmEnv.add("DURATION=" + rec.warmup);
+                System.out.println("[warmup " + rec.id + "] " + rec.warmupScript + " for " + rec.warmup);
+                // thresholds off: a cold backend may miss them, only a broken warm-up should fail the run
+                Integer code = execK6(rec, warmEnv, null, props.getScriptsDir() + "/" + rec.warmupScript);
+                if (code == null || code != 0)
+                    throw new IllegalStateException("warm-up " + rec.warmupScript + " exited with " + code);
+            }
+
+            rec.measureStart = Instant.now();
+            for (var h : hooks) h.onMeasureStart(rec);
+            Integer code = execK6(rec, envList, rec.summaryPath, props.getScriptsDir() + "/" + rec.script);
 
             rec.status = (code != null && code == 0) ? RunStatus.SUCCEEDED : RunStatus.FAILED;
             if (rec.status == RunStatus.SUCCEEDED) succeeded.increment(); else failed.increment();
@@ -141,7 +197,42 @@ public class RunnerService {
             rec.status = RunStatus.FAILED; failed.increment();
         } finally {
             rec.end = Instant.now();
+            for (var h : hooks) {
+                try { h.afterRun(rec); }
+                catch (Exception e) { e.printStackTrace(); }
+            }
             active--;
         }
     }
+
+    /** Runs one k6 process in the k6 container, streams its output, returns its exit code. */
+    private Integer execK6(RunRecord rec, List<String> envList, String summaryPath, String scriptPath)
+            throws InterruptedException {
+        List<String> cmd = new ArrayList<>(List.of(
+                "k6","run",
+                "--compatibility-mode=extended",
+                "-o","experimental-prometheus-rw"));
+        if (summaryPath != null) cmd.addAll(List.of("--summary-export", summaryPath));
+        else cmd.add("--no-thresholds");   // warm-up
+        cmd.add(scriptPath);
+
+        ExecCreateCmdResponse execCreate = docker.execCreateCmd(props.getK6Container())
+                .withAttachStdout(true).withAttachStderr(true)
+                .withEnv(envList)
+                .withCmd(cmd.toArray(String[]::new))
+                .exec();
+
+        var latch = new CountDownLatch(1);
+        docker.execStartCmd(execCreate.getId())
+                .exec(new Adapter<Frame>() {
+                    @Override public void onNext(Frame frame) {
+                        System.out.print("[k6 " + rec.id + "] " + new String(frame.getPayload()));
+                    }
+                    @Override public void onComplete() { latch.countDown(); }
+                    @Override public void onError(Throwable t) { t.printStackTrace(); latch.countDown(); }
+                });
+        latch.await();
+
+        return docker.inspectExecCmd(execCreate.getId()).exec().getExitCode();
+    }
 }
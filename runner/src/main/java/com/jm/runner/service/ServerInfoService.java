@@ -0,0 +1,39 @@
+package com.jm.runner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import com.jm.runner.model.RunRecord;
+
+/**
+ * Records which embedded server the target backend runs (Tomcat, Jetty, Undertow; chosen by Maven profile)
+ * from its {@code /actuator/info}, once any restarts or clones are up, so runs line up per engine.
+ * A backend that doesn't answer leaves the engine unknown rather than failing the run.
+ */
+@Service
+@Order(2)   // after StartupService / ReplicaService / JvmService brought the target up
+public class ServerInfoService implements RunHook {
+
+    private final RestClient http;
+
+    public ServerInfoService(RestClient.Builder builder) {
+        this.http = builder.build();
+    }
+
+    @Override
+    public void beforeRun(RunRecord rec) {
+        try {
+            JsonNode info = http.get()
+                    .uri(rec.params.get("BASE_URL") + "/actuator/info")
+                    .retrieve()
+                    .body(JsonNode.class);
+            String engine = info == null ? "" : info.path("server").path("engine").asText();
+            rec.serverEngine = engine.isEmpty() ? "unknown" : engine;
+        } catch (RuntimeException e) {
+            System.err.println("[engine " + rec.id + "] " + e.getMessage());
+            rec.serverEngine = "unknown";
+        }
+    }
+}
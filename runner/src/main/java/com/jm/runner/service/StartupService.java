@@ -0,0 +1,142 @@
+package com.jm.runner.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.MetricSeries;
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.model.StartupStats;
+import com.jm.runner.prometheus.PrometheusClient;
+
+/**
+ * Cold-start measurement for runs with a {@code startupMode}: restarts that mode's backend container
+ * right before k6 starts, times the first successful request, and after the run finds when the
+ * server-side p99 stopped drifting (time-to-steady-state). Comparing modes on the same workload
+ * gives the startup and warm-up gains of AppCDS/AOT and CRaC over the plain jar.
+ */
+@Service
+@Order(0)   // restart before any other hook sees the run
+public class StartupService implements RunHook {
+
+    private final DockerClient docker;
+    private final PrometheusClient prometheus;
+    private final RunnerProperties props;
+
+    public StartupService(DockerClient docker, PrometheusClient prometheus, RunnerProperties props) {
+        this.docker = docker;
+        this.prometheus = prometheus;
+        this.props = props;
+    }
+
+    @Override
+    public void beforeRun(RunRecord rec) throws Exception {
+        StartupStats s = rec.startup;
+        if (s == null) return;
+        checkAotSwitches(s);
+
+        try {
+            // CRaC: the stop is what restores from the checkpoint on the next start; fast: the archive stays valid
+            docker.stopContainerCmd(s.container).withTimeout(60).exec();
+        } catch (NotModifiedException alreadyStopped) {
+            // prepared modes are usually left stopped
+        }
+
+        s.restartedAt = Instant.now();
+        long t0 = System.nanoTime();
+        docker.startContainerCmd(s.container).exec();
+        HealthProbe.awaitOk(props.startupBaseUrl(s.mode) + props.getFirstRequestPath(), t0, props.getStartupTimeout());
+        s.timeToFirstRequestMs = Duration.ofNanos(System.nanoTime() - t0).toMillis();
+        System.out.println("[startup " + rec.id + "] " + s.mode + " first request after " + s.timeToFirstRequestMs + " ms");
+    }
+
+    /**
+     * An AOT-built jar evaluated its {@code @ConditionalOnProperty} beans at build time and ignores those
+     * switches at runtime, so a run whose container sets one differently would not measure what it claims.
+     */
+    void checkAotSwitches(StartupStats s) {
+        if (!props.getAotModes().contains(s.mode) || props.getAotSwitches().isEmpty()) return;
+        String[] env = docker.inspectContainerCmd(s.container).exec().getConfig().getEnv();
+        List<String> ignored = new ArrayList<>();
+        for (String e : Optional.ofNullable(env).orElse(new String[0])) {
+            int eq = e.indexOf('=');
+            if (eq < 0) continue;
+            String frozen = props.getAotSwitches().get(e.substring(0, eq));
+            if (frozen != null && !frozen.equalsIgnoreCase(e.substring(eq + 1)))
+                ignored.add(e + " (built with " + frozen + ")");
+        }
+        if (!ignored.isEmpty())
+            throw new IllegalStateException(s.container + " runs an AOT jar that ignores " + String.join(", ", ignored)
+                    + "; rebuild it with the matching -Daot.* properties or unset them");
+    }
+
+    @Override
+    public void afterRun(RunRecord rec) {
+        StartupStats s = rec.startup;
+        if (s == null || s.restartedAt == null || rec.end == null) return;
+        if (props.getPrometheusUrl() == null || props.getPrometheusUrl().isBlank()) return;
+        if (props.getSteadyStateQuery() == null || props.getSteadyStateQuery().isBlank()) return;
+
+        String expr = props.getSteadyStateQuery()
+                .replace("$instance", s.container + ":" + props.getBackendPort())
+                .replace("$run", PrometheusClient.labelValue(rec.runLabel));
+        var series = prometheus.queryRange("steady_state_p99", expr, s.restartedAt, rec.end, props.getSteadyStateStep());
+        if (series.isEmpty()) return;
+
+        MetricSeries p99 = series.get(0);
+        int first = firstFinite(p99.values);
+        if (first < 0) return;
+        s.firstP99Ms = p99.values[first] * 1000;
+
+        int steady = steadyIndex(p99.values, props.getSteadyStateTolerance());
+        if (steady < 0) return;
+        s.steadyP99Ms = median(tail(p99.values)) * 1000;
+        s.timeToSteadyStateMs = p99.timestamps[steady] - s.restartedAt.toEpochMilli();
+    }
+
+    /**
+     * Index of the first sample from which every later finite sample stays within {@code tolerance}
+     * (relative) of the settled level, taken as the median of the last quarter of samples.
+     * NaN gaps (no traffic in the window) are skipped. Returns -1 with too few samples.
+     */
+    static int steadyIndex(double[] values, double tolerance) {
+        double[] tail = tail(values);
+        if (tail.length == 0 || firstFinite(values) < 0) return -1;
+        double level = median(tail);
+
+        int steady = firstFinite(values);
+        for (int i = 0; i < values.length; i++) {
+            if (Double.isNaN(values[i])) continue;
+            if (Math.abs(values[i] - level) > tolerance * level) steady = i + 1;
+        }
+        while (steady < values.length && Double.isNaN(values[steady])) steady++;
+        return steady < values.length ? steady : -1;
+    }
+
+    private static double[] tail(double[] values) {
+        double[] finite = Arrays.stream(values).filter(Double::isFinite).toArray();
+        if (finite.length < 4) return new double[0];
+        return Arrays.copyOfRange(finite, finite.length - finite.length / 4, finite.length);
+    }
+
+    private static double median(double[] v) {
+        double[] sorted = v.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    private static int firstFinite(double[] values) {
+        for (int i = 0; i < values.length; i++) if (Double.isFinite(values[i])) return i;
+        return -1;
+    }
+}
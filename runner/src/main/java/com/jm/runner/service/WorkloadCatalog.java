@@ -0,0 +1,99 @@
+package com.jm.runner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.Workload;
+import com.jm.runner.model.WorkloadParam;
+
+/**
+ * Workloads described by the k6 scripts manifest ({@code workloads.json} next to the scripts).
+ * Shared params from {@code common} are merged into each workload; a workload entry with the
+ * same name overrides the common one.
+ */
+@Service
+public class WorkloadCatalog {
+
+    private final RunnerProperties props;
+    private final ObjectMapper mapper;
+
+    private static final Pattern K6_DURATION = Pattern.compile("^(\\d+(\\.\\d+)?(ms|s|m|h))+$");
+
+    record Manifest(List<WorkloadParam> common, List<Workload> workloads) {}
+
+    public WorkloadCatalog(RunnerProperties props, ObjectMapper mapper) {
+        this.props = props;
+        this.mapper = mapper;
+    }
+
+    public List<Workload> list() {
+        var m = load();
+        if (m == null || m.workloads() == null) return List.of();
+        return m.workloads().stream().map(w -> merged(w, m.common())).toList();
+    }
+
+    public Optional<Workload> find(String script) {
+        return list().stream().filter(w -> w.script.equals(script)).findFirst();
+    }
+
+    /** Rejects params whose value does not match the declared type; scripts without a manifest entry pass. */
+    public void validate(String script, Map<String,String> params) {
+        if (script == null || params == null) return;
+        var w = find(script).orElse(null);
+        if (w == null) return;
+
+        for (var p : w.params) {
+            String v = params.get(p.name);
+            if (v == null || v.isEmpty()) continue;
+            if (p.type == null)
+                throw new IllegalArgumentException("workload " + script + " declares " + p.name + " without a type");
+            switch (p.type) {
+                case "number" -> {
+                    try { Double.parseDouble(v); }
+                    catch (NumberFormatException e) { throw bad(p, v, "a number"); }
+                }
+                case "duration" -> {
+                    if (!K6_DURATION.matcher(v).matches()) throw bad(p, v, "a k6 duration like 30s or 1m30s");
+                }
+                case "enum" -> {
+                    if (p.values != null && !p.values.contains(v)) throw bad(p, v, "one of " + p.values);
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private static IllegalArgumentException bad(WorkloadParam p, String v, String expected) {
+        return new IllegalArgumentException(p.name + " must be " + expected + ", got \"" + v + "\"");
+    }
+
+    private static Workload merged(Workload w, List<WorkloadParam> common) {
+        var byName = new LinkedHashMap<String, WorkloadParam>();
+        Optional.ofNullable(common).orElse(List.of()).forEach(p -> byName.put(p.name, p));
+        Optional.ofNullable(w.params).orElse(List.of()).forEach(p -> byName.put(p.name, p));
+
+        var out = new Workload();
+        out.script = w.script;
+        out.model = w.model;
+        out.description = w.description;
+        out.params = List.copyOf(byName.values());
+        return out;
+    }
+
+    private Manifest load() {
+        Path file = Path.of(props.getScriptsDir(), props.getWorkloadsManifest());
+        if (!Files.exists(file)) return null;
+        try {
+            return mapper.readValue(file.toFile(), Manifest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read workloads manifest " + file, e);
+        }
+    }
+}
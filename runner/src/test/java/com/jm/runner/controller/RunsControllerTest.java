@@ -0,0 +1,40 @@
+package com.jm.runner.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.MetricsSnapshot;
+import com.jm.runner.service.MetricsSnapshotService;
+import com.jm.runner.service.RunnerService;
+import com.jm.runner.service.WorkloadCatalog;
+
+class RunsControllerTest {
+
+    @TempDir Path tmp;
+
+    private final RunnerService service = mock(RunnerService.class);
+    private final MetricsSnapshotService snapshots = mock(MetricsSnapshotService.class);
+    private final RunsController controller =
+            new RunsController(service, new RunnerProperties(), mock(WorkloadCatalog.class), snapshots);
+
+    @Test
+    void metrics_of_a_run_from_before_a_restart_are_read_from_disk() throws Exception {
+        Path file = Files.createFile(tmp.resolve("0a1b2c3d-4.metrics.bin"));
+        var snap = new MetricsSnapshot();
+        when(snapshots.file("0a1b2c3d-4")).thenReturn(file);
+        when(snapshots.read(file)).thenReturn(snap);
+
+        assertThat(controller.metrics("0a1b2c3d-4")).isSameAs(snap);   // not in service.get() any more
+        assertThatThrownBy(() -> controller.metrics("../../etc/x"))
+                .isInstanceOf(ResponseStatusException.class).hasMessageContaining("Run not found");
+        verify(snapshots, never()).file("../../etc/x");
+    }
+}
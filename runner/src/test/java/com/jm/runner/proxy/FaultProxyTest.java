@@ -0,0 +1,121 @@
+package com.jm.runner.proxy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+class FaultProxyTest {
+
+    ServerSocket echo;
+    FaultProxy proxy;
+
+    @BeforeEach
+    void start() throws IOException {
+        echo = new ServerSocket(0);
+        Thread.ofVirtual().start(() -> {
+            while (!echo.isClosed()) {
+                try {
+                    Socket s = echo.accept();
+                    Thread.ofVirtual().start(() -> {
+                        try (s) { s.getInputStream().transferTo(s.getOutputStream()); }
+                        catch (IOException ignored) { }
+                    });
+                } catch (IOException closed) {
+                    return;
+                }
+            }
+        });
+        proxy = new FaultProxy(0, "127.0.0.1", echo.getLocalPort(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        proxy.close();
+        echo.close();
+    }
+
+    Socket connect() throws IOException {
+        var s = new Socket();
+        s.connect(new InetSocketAddress("127.0.0.1", proxy.port()));
+        s.setSoTimeout(2000);
+        return s;
+    }
+
+    static String roundTrip(Socket s, String msg) throws IOException {
+        s.getOutputStream().write(msg.getBytes());
+        return new String(s.getInputStream().readNBytes(msg.length()));
+    }
+
+    @Test
+    void forwards_and_adds_latency_to_responses() throws Exception {
+        try (var s = connect()) {
+            assertThat(roundTrip(s, "ping")).isEqualTo("ping");
+
+            proxy.apply(new Toxics(300, 0, 0, false, false));
+            long t0 = System.nanoTime();
+            assertThat(roundTrip(s, "slow")).isEqualTo("slow");
+            assertThat((System.nanoTime() - t0) / 1_000_000).isGreaterThanOrEqualTo(300);
+        }
+    }
+
+    @Test
+    void latency_is_added_once_per_chunk_not_summed_over_a_large_response() throws Exception {
+        byte[] payload = new byte[32 * FaultProxy.BUFFER];   // at least 32 reads per direction, 512 KB
+        Arrays.fill(payload, (byte) 'x');
+        try (var s = connect()) {
+            proxy.apply(new Toxics(300, 0, 0, false, false));
+            long t0 = System.nanoTime();
+            s.getOutputStream().write(payload);
+            assertThat(s.getInputStream().readNBytes(payload.length)).isEqualTo(payload);
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            assertThat(ms).isGreaterThanOrEqualTo(300).isLessThan(550);   // about one latency; 4 chunks ahead took 2400+
+        }
+    }
+
+    @Test
+    void reset_drops_open_connections_and_refuses_new_ones() throws Exception {
+        try (var s = connect()) {
+            assertThat(roundTrip(s, "ping")).isEqualTo("ping");
+            await().until(() -> proxy.connections() == 1);
+
+            proxy.apply(new Toxics(0, 0, 0, true, false));
+            assertThatThrownBy(() -> readOrFail(s.getInputStream())).isInstanceOf(IOException.class);
+            await().until(() -> proxy.connections() == 0);
+
+            try (var again = connect()) {
+                assertThatThrownBy(() -> readOrFail(again.getInputStream())).isInstanceOf(IOException.class);
+            }
+        }
+    }
+
+    @Test
+    void stall_holds_data_until_cleared() throws Exception {
+        try (var s = connect()) {
+            proxy.apply(new Toxics(0, 0, 0, false, true));
+            s.getOutputStream().write("held".getBytes());
+            s.setSoTimeout(300);
+            assertThatThrownBy(() -> s.getInputStream().read()).isInstanceOf(SocketTimeoutException.class);
+
+            proxy.apply(Toxics.NONE);
+            s.setSoTimeout(2000);
+            assertThat(new String(s.getInputStream().readNBytes(4))).isEqualTo("held");
+        }
+    }
+
+    /** A reset shows up either as "connection reset" or as end of stream; both count as dropped. */
+    static void readOrFail(InputStream in) throws IOException {
+        if (in.read() < 0) throw new IOException("closed");
+    }
+}
@@ -0,0 +1,97 @@
+package com.jm.runner.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.command.RemoveContainerCmd;
+import com.github.dockerjava.api.command.StopContainerCmd;
+import com.github.dockerjava.api.model.Container;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.jm.runner.config.RunnerProperties;
+
+class BackendClonesTest {
+
+    private final DockerClient docker = mock(DockerClient.class);
+    private final RemoveContainerCmd removeCmd = mock(RemoveContainerCmd.class);
+    private final StopContainerCmd stopCmd = mock(StopContainerCmd.class);
+
+    private static Container container(String id, String role, String run) {
+        return container(id, role, run, "running");
+    }
+
+    private static Container container(String id, String role, String run, String state) {
+        var c = mock(Container.class);
+        when(c.getState()).thenReturn(state);
+        when(c.getId()).thenReturn(id);
+        when(c.getNames()).thenReturn(new String[] { "/" + id });
+        when(c.getLabels()).thenReturn(Map.of(BackendClones.ROLE_LABEL, role, BackendClones.RUN_LABEL, run));
+        return c;
+    }
+
+    private BackendClones clones(Container... listed) {
+        var list = mock(ListContainersCmd.class);
+        when(docker.listContainersCmd()).thenReturn(list);
+        when(list.withShowAll(true)).thenReturn(list);
+        when(list.withLabelFilter(anyCollection())).thenReturn(list);
+        when(list.exec()).thenReturn(List.of(listed));
+        when(docker.removeContainerCmd(anyString())).thenReturn(removeCmd);
+        when(removeCmd.withForce(true)).thenReturn(removeCmd);
+        when(docker.stopContainerCmd(anyString())).thenReturn(stopCmd);
+        when(stopCmd.withTimeout(anyInt())).thenReturn(stopCmd);
+        return new BackendClones(docker, new RunnerProperties());
+    }
+
+    @Test
+    void remove_only_touches_the_runs_own_clones_including_legacy_replicas() {
+        var c = clones(
+                container("backend-replica-1", "replica", "run-a"),
+                container("backend-jvm", "clone", "run-a"),
+                container("backend-replica-2", "clone", "run-b"),
+                container("something-else", "db", "run-a"));
+
+        c.remove("run-a");
+
+        verify(docker).removeContainerCmd("backend-replica-1");
+        verify(docker).removeContainerCmd("backend-jvm");
+        verify(docker, never()).removeContainerCmd("backend-replica-2");
+        verify(docker, never()).removeContainerCmd("something-else");
+    }
+
+    @Test
+    void running_clones_get_sigterm_and_the_stop_timeout_before_removal() {
+        var c = clones(
+                container("backend-replica-1", "clone", "run-a"),
+                container("backend-replica-2", "clone", "run-a", "exited"));
+
+        c.remove("run-a");
+
+        var order = inOrder(docker, stopCmd);
+        order.verify(docker).stopContainerCmd("backend-replica-1");
+        order.verify(stopCmd).withTimeout(30);
+        order.verify(stopCmd).exec();
+        order.verify(docker).removeContainerCmd("backend-replica-1");
+        verify(docker, never()).stopContainerCmd("backend-replica-2");
+        verify(docker).removeContainerCmd("backend-replica-2");
+    }
+
+    @Test
+    void leftovers_are_clones_no_live_run_owns_and_live_names_are_not_taken() {
+        var c = clones(
+                container("backend-jvm", "clone", "run-a"),
+                container("backend-replica-1", "replica", "crashed"));
+        c.claim("run-a", List.of("backend-jvm"));
+
+        c.removeLeftovers();
+
+        verify(docker).removeContainerCmd("backend-replica-1");
+        verify(docker, never()).removeContainerCmd("backend-jvm");
+        assertThatThrownBy(() -> c.claim("run-b", List.of("backend-jvm")))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("in use by run run-a");
+    }
+}
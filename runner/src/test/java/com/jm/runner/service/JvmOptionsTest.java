@@ -0,0 +1,69 @@
+package com.jm.runner.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.jm.runner.model.JvmConfig;
+
+class JvmOptionsTest {
+
+    @Test
+    void builds_java_opts_and_tag_from_gc_heap_and_scheduler() {
+        var c = new JvmConfig();
+        c.gc = "zgc";
+        c.heap = "2g";
+        c.vtParallelism = 4;
+        c.options = List.of("-XX:+AlwaysPreTouch");
+
+        assertThat(JvmOptions.javaOpts(c)).isEqualTo(
+                "-XX:+UseZGC -XX:+ZGenerational -Xms2g -Xmx2g -Djdk.virtualThreadScheduler.parallelism=4 -XX:+AlwaysPreTouch");
+        assertThat(JvmOptions.tag(c)).startsWith("zgc-2g-p4-");
+
+        c.tag = "zgc-big";
+        assertThat(JvmOptions.tag(c)).isEqualTo("zgc-big");
+    }
+
+    @Test
+    void apply_appends_to_template_opts_so_run_options_win() {
+        var c = new JvmConfig();
+        c.gc = "parallel";
+        c.heap = "1g";
+        JvmService.resolve(c);
+        Map<String,String> env = new HashMap<>(Map.of("JAVA_OPTS", "-Xms256m -Xmx512m"));
+
+        JvmService.apply(c, env);
+
+        assertThat(env).containsEntry("JAVA_OPTS", "-Xms256m -Xmx512m -XX:+UseParallelGC -Xms1g -Xmx1g")
+                       .containsEntry("JVM_CONFIG_TAG", "parallel-1g");
+        assertThat(c.javaOpts).isEqualTo(env.get("JAVA_OPTS"));
+    }
+
+    @Test
+    void rejects_unknown_gc_bad_heap_and_unsafe_options() {
+        var gc = new JvmConfig();
+        gc.gc = "cms";
+        assertThatThrownBy(() -> JvmOptions.javaOpts(gc)).hasMessageContaining("unknown gc");
+
+        var heap = new JvmConfig();
+        heap.heap = "1g -XX:+UseSerialGC";
+        assertThatThrownBy(() -> JvmOptions.javaOpts(heap)).hasMessageContaining("heap");
+
+        for (String bad : List.of("-XX:OnOutOfMemoryError=sh", "-XX:ErrorFile=/etc/x", "-jar x.jar", "-XX:+UseG1GC; rm", "-Dx=$(id)",
+                "-Xlog:gc:file=/app/app.jar", "-Xlog:gc:/app/app.jar", "-Xlog:gc:gc.log", "-XX:LogFile=/app/app.jar",
+                "-XX:ArchiveClassesAtExit=app.jsa", "-Dlogging.file.name=/app/app.jar")) {
+            var c = new JvmConfig();
+            c.options = List.of(bad);
+            assertThatThrownBy(() -> JvmOptions.javaOpts(c)).as(bad).hasMessageContaining("not allowed");
+        }
+        for (String ok : List.of("-Xlog:gc*", "-Xlog:gc*=info,safepoint:stdout:uptime,level,tags", "-Xlog:gc:stderr")) {
+            var c = new JvmConfig();
+            c.options = List.of(ok);
+            assertThatCode(() -> JvmOptions.javaOpts(c)).as(ok).doesNotThrowAnyException();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.jm.runner.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.JvmConfig;
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.prometheus.PrometheusClient;
+
+class MetricsSnapshotServiceTest {
+
+    @TempDir Path tmp;
+
+    private HttpServer prom;
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+
+    // local stub for /api/v1/query_range: one series per query, or an error for "broken"
+    @BeforeEach
+    void startStubPrometheus() throws Exception {
+        prom = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        prom.createContext("/api/v1/query_range", ex -> {
+            var form = URLDecoder.decode(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            var query = form.replaceAll("(?s).*query=([^&]*).*", "$1");
+            queries.add(query);
+
+            String body = query.contains("broken")
+                    ? """
+                      {"status":"error","errorType":"bad_data","error":"parse error"}"""
+                    : query.contains("run=\"abc123\"")     // nothing was stamped with the bare run id
+                    ? """
+                      {"status":"success","data":{"resultType":"matrix","result":[]}}"""
+                    : """
+                      {"status":"success","data":{"resultType":"matrix","result":[
+                        {"metric":{"pool":"HikariPool-1","run":"r-1"},
+                         "values":[[1700000000,"3"],[1700000015,"3"],[1700000030,"5.5"],[1700000045,"NaN"]]}
+                      ]}}""";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(query.contains("broken") ? 400 : 200, bytes.length);
+            ex.getResponseBody().write(bytes);
+            ex.close();
+        });
+        prom.start();
+    }
+
+    @AfterEach
+    void stop() { prom.stop(0); }
+
+    private RunnerProperties props() {
+        var p = new RunnerProperties();
+        p.setResultsDir(tmp.toString());
+        p.setPrometheusUrl("http://127.0.0.1:" + prom.getAddress().getPort());
+        p.setMetricsStep(Duration.ofSeconds(15));
+        var q = new LinkedHashMap<String,String>();
+        q.put("hikari_pending", "sum by (pool) (hikaricp_connections_pending{run=\"$run\"})");
+        q.put("oops", "broken(");
+        p.setMetricsQueries(q);
+        return p;
+    }
+
+    private RunRecord finishedRun() {
+        var rec = new RunRecord();
+        rec.id = "abc123";
+        rec.runLabel = "r-1";
+        rec.start = Instant.ofEpochSecond(1_700_000_000);
+        rec.end = rec.start.plusSeconds(45);
+        return rec;
+    }
+
+    @Test
+    void run_label_is_escaped_inside_the_promql_string() throws Exception {
+        var p = props();
+        var service = new MetricsSnapshotService(new PrometheusClient(RestClient.builder(), p), p);
+        var rec = finishedRun();
+        rec.runLabel = "x\"} or vector(1) or {a=\"\\";
+
+        service.afterRun(rec);
+
+        assertThat(queries).contains("sum by (pool) (hikaricp_connections_pending{run=\"x\\\"} or vector(1) or {a=\\\"\\\\\"})");
+    }
+
+    @Test
+    void afterRun_stores_snapshot_and_reads_it_back() throws Exception {
+        var p = props();
+        var service = new MetricsSnapshotService(new PrometheusClient(RestClient.builder(), p), p);
+        var rec = finishedRun();
+
+        service.afterRun(rec);
+
+        assertThat(queries).contains("sum by (pool) (hikaricp_connections_pending{run=\"r-1\"})");
+        assertThat(rec.metricsPath).isEqualTo(tmp.resolve("abc123.metrics.bin").toString());
+
+        var snap = service.read(rec);
+        assertThat(snap.runLabel).isEqualTo("r-1");
+        assertThat(snap.step).isEqualTo(Duration.ofSeconds(15));
+        assertThat(snap.series).hasSize(1);               // the broken query is skipped, not fatal
+
+        var s = snap.series.get(0);
+        assertThat(s.query).isEqualTo("hikari_pending");
+        assertThat(s.labels).containsEntry("pool", "HikariPool-1");
+        assertThat(s.timestamps).containsExactly(1_700_000_000_000L, 1_700_000_015_000L, 1_700_000_030_000L, 1_700_000_045_000L);
+        assertThat(s.values[0]).isEqualTo(3.0);
+        assertThat(s.values[1]).isEqualTo(3.0);
+        assertThat(s.values[2]).isEqualTo(5.5);
+        assertThat(s.values[3]).isNaN();
+    }
+
+    @Test
+    void runs_on_the_compose_backend_fall_back_to_its_run_label() throws Exception {
+        var p = props();
+        p.getMetricsQueries().remove("oops");
+        var service = new MetricsSnapshotService(new PrometheusClient(RestClient.builder(), p), p);
+        var rec = finishedRun();
+        rec.runLabel = rec.id;                            // no RUN_ID param
+
+        service.afterRun(rec);
+
+        assertThat(queries).containsExactly(
+                "sum by (pool) (hikaricp_connections_pending{run=\"abc123\"})",
+                "sum by (pool) (hikaricp_connections_pending{run=\"dev\"})");
+        assertThat(service.read(rec).series).hasSize(1);
+
+        queries.clear();
+        rec.jvm = new JvmConfig();   // a clone carries the run label; no fallback
+        service.afterRun(rec);
+        assertThat(queries).containsExactly("sum by (pool) (hikaricp_connections_pending{run=\"abc123\"})");
+        assertThat(service.read(rec).series).isEmpty();
+    }
+
+    @Test
+    void step_widens_for_long_runs() throws Exception {
+        var p = props();
+        p.getMetricsQueries().remove("oops");
+        var service = new MetricsSnapshotService(new PrometheusClient(RestClient.builder(), p), p);
+        var rec = finishedRun();
+        rec.end = rec.start.plus(Duration.ofDays(3));
+
+        service.afterRun(rec);
+
+        // 3 days / 10k points ≈ 26s > configured 15s
+        assertThat(service.read(rec).step).isGreaterThan(Duration.ofSeconds(25));
+    }
+
+    @Test
+    void after_a_warmup_the_window_starts_one_rate_window_into_the_measured_load() throws Exception {
+        var p = props();
+        p.getMetricsQueries().remove("oops");
+        var service = new MetricsSnapshotService(new PrometheusClient(RestClient.builder(), p), p);
+        var rec = finishedRun();
+        rec.measureStart = rec.start.plusSeconds(120);
+        rec.end = rec.measureStart.plusSeconds(300);
+
+        service.afterRun(rec);
+        assertThat(service.read(rec).start).isEqualTo(rec.measureStart);
+
+        rec.warmup = "2m";
+        service.afterRun(rec);
+        assertThat(service.read(rec).start).isEqualTo(rec.measureStart.plusSeconds(30));
+    }
+
+    @Test
+    void disabled_without_prometheus_url() throws Exception {
+        var p = props();
+        p.setPrometheusUrl("");
+        var service = new MetricsSnapshotService(new PrometheusClient(RestClient.builder(), p), p);
+        var rec = finishedRun();
+
+        service.afterRun(rec);
+
+        assertThat(rec.metricsPath).isNull();
+        assertThat(queries).isEmpty();
+    }
+}
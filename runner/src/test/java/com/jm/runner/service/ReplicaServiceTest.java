@@ -0,0 +1,124 @@
+package com.jm.runner.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.JvmConfig;
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.model.ScaleOutStats;
+
+class ReplicaServiceTest {
+
+    private final BackendClones clones = mock(BackendClones.class);
+
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<Map<String,String>> env = ArgumentCaptor.forClass(Map.class);
+
+    private ReplicaService service(Map<String,String> template) throws Exception {
+        when(clones.templateEnv()).thenReturn(new LinkedHashMap<>(template));
+        when(clones.start(anyString(), anyList(), anyMap(), anyString(), any()))
+                .thenAnswer(inv -> inv.getArgument(1));
+        var props = new RunnerProperties();
+        props.setReplicaSettle(Duration.ZERO);
+        return new ReplicaService(clones, props);
+    }
+
+    private static RunRecord run(int replicas, Integer poolSize, int pgMaxConnections) {
+        var rec = new RunRecord();
+        rec.id = "r1";
+        rec.runLabel = "r1-scale";
+        rec.scaleOut = new ScaleOutStats();
+        rec.scaleOut.replicas = replicas;
+        rec.scaleOut.poolSizePerReplica = poolSize;
+        rec.scaleOut.pgMaxConnections = pgMaxConnections;
+        return rec;
+    }
+
+    @Test
+    void per_replica_pool_size_overrides_the_template_and_is_recorded() throws Exception {
+        var rec = run(3, 8, 100);
+
+        service(Map.of("SPRING_DB_POOL_SIZE", "20", "JAVA_OPTS", "-Xss512k")).beforeRun(rec);
+
+        verify(clones).removeLeftovers();
+        verify(clones).start(eq("r1"), eq(List.of("backend-replica-1", "backend-replica-2", "backend-replica-3")),
+                env.capture(), eq("backend-replica"), isNull());
+        assertThat(env.getValue())
+                .containsEntry("SPRING_DB_POOL_SIZE", "8")
+                .containsEntry("RUN_ID", "r1-scale")
+                .containsEntry("JAVA_OPTS", "-Xss512k");
+        assertThat(rec.scaleOut.poolSizePerReplica).isEqualTo(8);
+        assertThat(rec.scaleOut.totalDbConnections).isEqualTo(24);
+        assertThat(rec.scaleOut.containers).hasSize(3);
+    }
+
+    @Test
+    void without_an_override_the_template_pool_size_is_recorded() throws Exception {
+        var rec = run(2, null, 100);
+
+        service(Map.of("SPRING_DB_POOL_SIZE", "20")).beforeRun(rec);
+
+        verify(clones).start(anyString(), anyList(), env.capture(), anyString(), any());
+        assertThat(env.getValue()).containsEntry("SPRING_DB_POOL_SIZE", "20");
+        assertThat(rec.scaleOut.totalDbConnections).isEqualTo(40);
+
+        var unknown = run(2, null, 100);          // template without the variable: nothing to multiply
+        service(Map.of()).beforeRun(unknown);
+        assertThat(unknown.scaleOut.poolSizePerReplica).isNull();
+        assertThat(unknown.scaleOut.totalDbConnections).isNull();
+    }
+
+    @Test
+    void jvm_options_are_appended_to_the_template_java_opts() throws Exception {
+        var rec = run(2, null, 100);
+        rec.jvm = new JvmConfig();
+        rec.jvm.gc = "zgc";
+        rec.jvm.heap = "1g";
+        JvmService.resolve(rec.jvm);
+
+        service(Map.of("JAVA_OPTS", "-Xss512k")).beforeRun(rec);
+
+        verify(clones).start(anyString(), anyList(), env.capture(), anyString(), any());
+        assertThat(env.getValue().get("JAVA_OPTS"))
+                .startsWith("-Xss512k ")
+                .contains("-XX:+UseZGC", "-Xms1g -Xmx1g");
+        assertThat(env.getValue()).containsEntry("JVM_CONFIG_TAG", rec.jvm.tag);
+        assertThat(rec.jvm.javaOpts).isEqualTo(env.getValue().get("JAVA_OPTS"));
+    }
+
+    @Test
+    void more_pooled_connections_than_max_connections_warns_but_still_starts() throws Exception {
+        var rec = run(4, 30, 100);
+        var out = new ByteArrayOutputStream();
+        var stdout = System.out;
+        System.setOut(new PrintStream(out, true));
+        try {
+            service(Map.of()).beforeRun(rec);
+        } finally {
+            System.setOut(stdout);
+        }
+
+        assertThat(rec.scaleOut.totalDbConnections).isEqualTo(120);
+        assertThat(out.toString()).contains("120 pooled connections > Postgres max_connections 100");
+        verify(clones).start(anyString(), anyList(), anyMap(), anyString(), any());
+
+        out.reset();
+        System.setOut(new PrintStream(out, true));
+        try {
+            service(Map.of()).beforeRun(run(4, 25, 100));      // exactly at the limit is fine
+        } finally {
+            System.setOut(stdout);
+        }
+        assertThat(out.toString()).doesNotContain("max_connections");
+    }
+}
@@ -13,13 +13,16 @@ import java.nio.file.*;
 import java.time.Instant;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.awaitility.Awaitility.await;
 
 import com.jm.runner.config.RunnerProperties;
 import com.jm.runner.api.StartRunRequest;
+import com.jm.runner.model.FaultStep;
 import com.jm.runner.model.RunRecord;
 import com.jm.runner.model.RunStatus;
 
@@ -45,7 +48,7 @@ class RunnerServiceTest {
         Files.createDirectories(tmp.resolve("work"));
         Files.createDirectories(tmp.resolve("runs"));
 
-        var service = new RunnerService(docker, props(), mr);
+        var service = new RunnerService(docker, props(), mr, List.of());
 
         var req = new StartRunRequest();
         req.script = "missing.js";
@@ -64,7 +67,7 @@ class RunnerServiceTest {
         Files.createDirectories(tmp.resolve("runs"));
         Files.writeString(tmp.resolve("work/ok.js"), "export default function(){}");
 
-        var service = new RunnerService(docker, props(), mr);
+        var service = new RunnerService(docker, props(), mr, List.of());
 
         var req = new StartRunRequest();
         req.script = "ok.js";
@@ -75,6 +78,62 @@ class RunnerServiceTest {
                 .hasMessageContaining("BASE_URL must be");
     }
 
+    @Test
+    void enqueue_rejects_faults_when_runs_can_overlap() throws Exception {
+        Files.createDirectories(tmp.resolve("work"));
+        Files.writeString(tmp.resolve("work/ok.js"), "export default function(){}");
+        var p = props();
+        p.setFaultProxyUpstream("postgres:5432");
+        p.setMaxConcurrency(2);
+        var service = new RunnerService(mock(DockerClient.class), p, new SimpleMeterRegistry(), List.of());
+
+        var step = new FaultStep();
+        step.at = "10s";
+        step.duration = "20s";
+        step.latencyMs = 50L;
+        var req = new StartRunRequest();
+        req.script = "ok.js";
+        req.faults = List.of(step);
+
+        assertThatThrownBy(() -> service.enqueue(req))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max-concurrency=1");
+    }
+
+    @Test
+    void enqueue_scale_out_targets_load_balancer_and_records_topology() throws Exception {
+        var docker = mock(DockerClient.class);
+        Files.createDirectories(tmp.resolve("work"));
+        Files.writeString(tmp.resolve("work/ok.js"), "export default function(){}");
+        var p = props();
+        p.getLbBaseUrls().put("roundrobin", "http://lb:8080");
+        p.getLbBaseUrls().put("leastconn", "http://lb:8081");
+        p.setPgMaxConnections(100);
+
+        var service = new RunnerService(docker, p, new SimpleMeterRegistry(), List.of());
+
+        var req = new StartRunRequest();
+        req.script = "ok.js";
+        req.replicas = 4;
+        req.lbAlgorithm = "leastconn";
+        req.replicaPoolSize = 30;
+        RunRecord rec = service.enqueue(req);
+
+        assertThat(rec.params).containsEntry("BASE_URL", "http://lb:8081");
+        assertThat(rec.scaleOut.replicas).isEqualTo(4);
+        assertThat(rec.scaleOut.poolSizePerReplica).isEqualTo(30);
+        assertThat(rec.scaleOut.pgMaxConnections).isEqualTo(100);
+
+        req.params = new HashMap<>(Map.of("BASE_URL", "http://backend:8080"));
+        assertThatThrownBy(() -> service.enqueue(req)).hasMessageContaining("BASE_URL must be http://lb:8081");
+        req.params = null;
+        req.replicas = 17;
+        assertThatThrownBy(() -> service.enqueue(req)).hasMessageContaining("replicas must be between 1 and 16");
+        req.replicas = 2;
+        req.lbAlgorithm = "random";
+        assertThatThrownBy(() -> service.enqueue(req)).hasMessageContaining("unknown lbAlgorithm");
+    }
+
     @Test
     void run_succeeds_and_updates_status_and_metrics() throws Exception {
         var mr = new SimpleMeterRegistry();
@@ -83,7 +142,7 @@ class RunnerServiceTest {
         Files.createDirectories(tmp.resolve("runs"));
         Files.writeString(tmp.resolve("work/ok.js"), "export default function(){}");
 
-        var service = new RunnerService(docker, props(), mr);
+        var service = new RunnerService(docker, props(), mr, List.of());
 
         var req = new StartRunRequest();
         req.script = "ok.js";
@@ -99,8 +158,33 @@ class RunnerServiceTest {
         assertThat(mr.counter("k6_runs_started_total").count()).isEqualTo(1.0);
     }
 
+    @Test
+    void failed_warmup_fails_the_run_before_the_measured_load() throws Exception {
+        var docker = mockDocker(107);
+        Files.createDirectories(tmp.resolve("work"));
+        Files.createDirectories(tmp.resolve("runs"));
+        Files.writeString(tmp.resolve("work/ok.js"), "export default function(){}");
+
+        var service = new RunnerService(docker, props(), new SimpleMeterRegistry(), List.of());
+
+        var req = new StartRunRequest();
+        req.script = "ok.js";
+        req.warmup = "1m";
+        RunRecord rec = service.enqueue(req);
+        assertThat(rec.warmupScript).isEqualTo("ok.js");   // same script as the measured load
+
+        await().until(() -> rec.end != null);
+        assertThat(rec.status).isEqualTo(RunStatus.FAILED);
+        assertThat(rec.measureStart).isNull();
+        verify(docker, times(1)).execCreateCmd("k6");       // the measured k6 never started
+    }
+
     // ----- helper -----
     private DockerClient mockDockerSuccess() {
+        return mockDocker(0);
+    }
+
+    private DockerClient mockDocker(int exitCode) {
         var docker = mock(DockerClient.class);
 
         // ---- mock execCreateCmd(...).exec() -> ExecCreateCmdResponse
@@ -128,7 +212,7 @@ class RunnerServiceTest {
         // ---- mock inspectExecCmd(id).exec() -> InspectExecResponse with exit code
         var inspectCmd = mock(com.github.dockerjava.api.command.InspectExecCmd.class);
         var inspectResp = mock(com.github.dockerjava.api.command.InspectExecResponse.class);
-        when(inspectResp.getExitCode()).thenReturn(0);            // <-- stub the getter
+        when(inspectResp.getExitCode()).thenReturn(exitCode);     // <-- stub the getter
         when(docker.inspectExecCmd("exec-123")).thenReturn(inspectCmd);
         when(inspectCmd.exec()).thenReturn(inspectResp);
 
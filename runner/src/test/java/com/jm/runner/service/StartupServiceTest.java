@@ -0,0 +1,107 @@
+package com.jm.runner.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.StartContainerCmd;
+import com.github.dockerjava.api.command.StopContainerCmd;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.RunRecord;
+import com.jm.runner.model.StartupStats;
+import com.jm.runner.prometheus.PrometheusClient;
+
+class StartupServiceTest {
+
+    static final double NaN = Double.NaN;
+
+    @Test
+    void steady_index_is_first_sample_after_the_last_excursion() {
+        double[] p99 = {NaN, 0.900, 0.400, 0.130, 0.095, 0.105, 0.100, 0.098, 0.102, 0.100};
+        assertThat(StartupService.steadyIndex(p99, 0.2)).isEqualTo(4);
+    }
+
+    @Test
+    void steady_index_skips_gaps_and_late_spikes_reset_it() {
+        double[] p99 = {0.100, NaN, 0.100, 0.100, 0.500, 0.100, NaN, 0.100, 0.100, 0.100};
+        assertThat(StartupService.steadyIndex(p99, 0.2)).isEqualTo(5);
+        assertThat(StartupService.steadyIndex(new double[]{NaN, 0.1, 0.1}, 0.2)).isEqualTo(-1);   // too few samples
+    }
+
+    @Test
+    void before_run_restarts_container_and_times_first_successful_request() throws Exception {
+        var hits = new AtomicInteger();
+        var server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/orders/1", ex -> {   // a real request, not the health endpoint
+            ex.sendResponseHeaders(hits.incrementAndGet() < 3 ? 503 : 200, -1);   // "booting" twice
+            ex.close();
+        });
+        server.start();
+        try {
+            var props = new RunnerProperties();
+            props.getStartupModes().put("fast", "127.0.0.1");
+            props.setBackendPort(server.getAddress().getPort());
+            props.setStartupTimeout(Duration.ofSeconds(5));
+
+            var docker = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+            var stop = mock(StopContainerCmd.class);
+            when(docker.stopContainerCmd("127.0.0.1")).thenReturn(stop);
+            when(stop.withTimeout(anyInt())).thenReturn(stop);
+            when(stop.exec()).thenThrow(new NotModifiedException("already stopped"));
+            var start = mock(StartContainerCmd.class);
+            when(docker.startContainerCmd("127.0.0.1")).thenReturn(start);
+
+            var rec = new RunRecord();
+            rec.id = "r1";
+            rec.startup = new StartupStats();
+            rec.startup.mode = "fast";
+            rec.startup.container = "127.0.0.1";
+
+            new StartupService(docker, mock(PrometheusClient.class), props).beforeRun(rec);
+
+            verify(start).exec();
+            assertThat(hits.get()).isEqualTo(3);
+            assertThat(rec.startup.restartedAt).isNotNull();
+            assertThat(rec.startup.timeToFirstRequestMs).isNotNull().isGreaterThanOrEqualTo(0L);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void an_aot_mode_whose_env_flips_a_frozen_switch_is_refused_before_the_restart() {
+        var props = new RunnerProperties();
+        props.getStartupModes().put("fast", "backend-fast");
+        props.getAotSwitches().put("INGEST_MODE", "sync");
+        props.getAotSwitches().put("TRACING_ENABLED", "false");
+
+        var docker = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+        when(docker.inspectContainerCmd("backend-fast").exec().getConfig().getEnv())
+                .thenReturn(new String[] { "INGEST_MODE=journal", "TRACING_ENABLED=FALSE", "RUN_ID=dev" });
+
+        var rec = new RunRecord();
+        rec.id = "r1";
+        rec.startup = new StartupStats();
+        rec.startup.mode = "fast";
+        rec.startup.container = "backend-fast";
+
+        assertThatThrownBy(() -> new StartupService(docker, mock(PrometheusClient.class), props).beforeRun(rec))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("INGEST_MODE=journal (built with sync)")
+                .hasMessageNotContaining("TRACING_ENABLED");
+        verify(docker, never()).stopContainerCmd(anyString());
+
+        rec.startup.mode = "plain";   // the plain jar reads every switch at runtime
+        props.getStartupModes().put("plain", "backend-fast");
+        assertThatCode(() -> new StartupService(docker, mock(PrometheusClient.class), props).checkAotSwitches(rec.startup))
+                .doesNotThrowAnyException();
+    }
+}
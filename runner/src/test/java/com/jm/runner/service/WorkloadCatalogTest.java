@@ -0,0 +1,91 @@
+package com.jm.runner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.jm.runner.config.RunnerProperties;
+import com.jm.runner.model.WorkloadParam;
+
+class WorkloadCatalogTest {
+
+    @TempDir Path tmp;
+
+    private WorkloadCatalog catalog() throws Exception {
+        Files.writeString(tmp.resolve("workloads.json"), """
+            {
+              "common": [
+                { "name": "BATCH",   "type": "number", "default": "20" },
+                { "name": "ID_DIST", "type": "enum",   "default": "uniform", "values": ["uniform","zipf"] }
+              ],
+              "workloads": [
+                { "script": "spike.js", "model": "open", "params": [
+                    { "name": "SPIKE_RPS", "type": "number",   "default": "3000" },
+                    { "name": "RECOVERY",  "type": "duration", "default": "2m" }
+                ]},
+                { "script": "closed_model.js", "model": "closed", "params": [
+                    { "name": "BATCH", "type": "number", "default": "1" }
+                ]}
+              ]
+            }
+            """);
+        var p = new RunnerProperties();
+        p.setScriptsDir(tmp.toString());
+        return new WorkloadCatalog(p, new ObjectMapper());
+    }
+
+    @Test
+    void list_merges_common_params_and_lets_workload_override() throws Exception {
+        var c = catalog();
+
+        assertThat(c.list()).extracting(w -> w.script).containsExactly("spike.js", "closed_model.js");
+        assertThat(c.find("spike.js").orElseThrow().params)
+                .extracting(p -> p.name).containsExactly("BATCH", "ID_DIST", "SPIKE_RPS", "RECOVERY");
+        assertThat(c.find("closed_model.js").orElseThrow().params)
+                .filteredOn(p -> p.name.equals("BATCH"))
+                .extracting(WorkloadParam::getDefaultValue).containsExactly("1");
+    }
+
+    @Test
+    void validate_rejects_values_that_do_not_match_the_schema() throws Exception {
+        var c = catalog();
+
+        assertThatCode(() -> c.validate("spike.js", Map.of("SPIKE_RPS", "2500", "RECOVERY", "1m30s", "ID_DIST", "zipf")))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> c.validate("spike.js", Map.of("SPIKE_RPS", "lots")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("SPIKE_RPS");
+        assertThatThrownBy(() -> c.validate("spike.js", Map.of("RECOVERY", "2 minutes")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("duration");
+        assertThatThrownBy(() -> c.validate("spike.js", Map.of("ID_DIST", "pareto")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("one of");
+    }
+
+    @Test
+    void validate_rejects_a_param_declared_without_a_type() throws Exception {
+        Files.writeString(tmp.resolve("workloads.json"), """
+            { "workloads": [ { "script": "odd.js", "params": [ { "name": "RPS" } ] } ] }
+            """);
+        var p = new RunnerProperties();
+        p.setScriptsDir(tmp.toString());
+        var c = new WorkloadCatalog(p, new ObjectMapper());
+
+        assertThatThrownBy(() -> c.validate("odd.js", Map.of("RPS", "100")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("without a type");
+        assertThatCode(() -> c.validate("odd.js", Map.of())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void missing_manifest_means_no_workloads_and_no_validation() {
+        var p = new RunnerProperties();
+        p.setScriptsDir(tmp.resolve("nowhere").toString());
+        var c = new WorkloadCatalog(p, new ObjectMapper());
+
+        assertThat(c.list()).isEmpty();
+        assertThatCode(() -> c.validate("ok.js", Map.of("RPS", "x"))).doesNotThrowAnyException();
+    }
+}
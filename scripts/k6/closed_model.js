@@ -0,0 +1,29 @@
+import { sleep } from 'k6';
+import { envNum, envStr, baseOptions, TREND_STATS_P99, runBatch, summarize } from './common.js';
+
+// Closed model for contrast: a fixed population of VUs, each waits for its batch and then
+// thinks. Throughput drops when the backend slows down (coordinated omission), unlike the
+// arrival-rate scripts, so compare its p95/p99 against constant_rate.js with care.
+
+// ---- Env knobs --------------------------------------------------------------
+const VUS        = envNum('VUS', 50);
+const DURATION   = envStr('DURATION', '1m');
+const THINK_MS   = envNum('THINK_MS', 100);
+const CL_BATCH   = envNum('BATCH', 1);     // one request per iteration by default
+
+// ---- k6 options -------------------------------------------------------------
+export const options = baseOptions({
+  closed: {
+    executor: 'constant-vus',
+    vus: VUS,
+    duration: DURATION,
+    gracefulStop: '30s',
+  },
+}, TREND_STATS_P99);
+
+export default function () {
+  runBatch(CL_BATCH, true);
+  if (THINK_MS > 0) sleep(THINK_MS / 1000);
+}
+
+export function handleSummary(data) { return summarize(data); }
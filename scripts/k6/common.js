@@ -1,3 +1,7 @@
+import http from 'k6/http';
+import { Counter, Rate } from 'k6/metrics';
+import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.4/index.js';
+
 export function envNum(name, def) {
   const raw = __ENV[name];
   // treat undefined, null, and empty string as “missing”
@@ -8,3 +12,224 @@ export function envNum(name, def) {
   }
   return n;
 }
+
+export function envStr(name, def) {
+  const raw = __ENV[name];
+  return (raw === undefined || raw === null || raw === '') ? def : String(raw);
+}
+
+
+// ---- Counter --------------------------------------------------------------
+export const status_count       = new Counter('status_count');   // by exact code
+export const status_family      = new Counter('status_family');  // 2xx/4xx/5xx
+export const business_resps_ok  = new Rate('business_resps_ok');            // your definition of success
+
+
+// ---- Shared env knobs -------------------------------------------------------
+export const BASE_URL = envStr('BASE_URL', 'http://backend:8080');
+export const RUN_ID   = envStr('RUN_ID', 'dev');            // set by the runner; matches the backend `run` tag
+export const JVM_TAG  = envStr('JVM_CONFIG_TAG', 'default'); // runner's JVM option set; matches the backend `jvm` tag
+export const ENGINE   = envStr('SERVER_ENGINE', 'unknown');  // backend's embedded server, from /actuator/info
+export const BATCH    = envNum('BATCH', 20);
+const ID_MIN          = envNum('ID_MIN', 1);
+const ID_MAX          = envNum('ID_MAX', 1000);
+const ID_DIST         = envStr('ID_DIST', 'uniform');   // uniform | zipf
+const ZIPF_S          = envNum('ZIPF_S', 1.1);          // skew; ~1 = classic Zipf, higher = hotter head
+
+if (ID_MIN > ID_MAX) {
+  throw new Error(`Bad ID range: ID_MIN=${ID_MIN} ID_MAX=${ID_MAX}`);
+}
+if (ID_DIST !== 'uniform' && ID_DIST !== 'zipf') {
+  throw new Error(`ID_DIST must be "uniform" or "zipf", got "${ID_DIST}"`);
+}
+if (ZIPF_S <= 0) {
+  throw new Error(`ZIPF_S must be > 0, got ${ZIPF_S}`);
+}
+
+// Optional: tune request mix (per "cycle" below)
+const RATIO_GET  = envNum('RATIO_GET', 4);
+const RATIO_POST = envNum('RATIO_POST', 1);
+const RATIO_SLOW = envNum('RATIO_SLOW', 1);
+
+// ---- Endpoint paths (adjust if different in your app) -----------------------
+const GET_ORDERS_URL  = `${BASE_URL}/orders/`;   // GET /orders/{id}
+const POST_ORDERS_URL = `${BASE_URL}/orders`;    // POST /orders
+const SLOW_URL        = `${BASE_URL}/orders/report/slow/300`;      // GET /slow (or change to your slow endpoint)
+
+
+// ---- Id selection -----------------------------------------------------------
+const ID_SPAN = ID_MAX - ID_MIN + 1;
+
+// Zipf via inverse CDF of the bounded continuous power law: O(1), no per-VU table.
+// Rank 1 (= ID_MIN) is the hottest key, so hot rows are the lowest ids.
+function zipfRank() {
+  const u = Math.random();
+  const x = (ZIPF_S === 1)
+    ? Math.pow(ID_SPAN + 1, u)
+    : Math.pow((Math.pow(ID_SPAN + 1, 1 - ZIPF_S) - 1) * u + 1, 1 / (1 - ZIPF_S));
+  return Math.min(ID_SPAN, Math.max(1, Math.floor(x)));
+}
+
+export function pickId() {
+  if (ID_DIST === 'zipf') return ID_MIN + zipfRank() - 1;
+  return ID_MIN + Math.floor(Math.random() * ID_SPAN);
+}
+
+
+// ---- Shared k6 options ------------------------------------------------------
+export const thresholds = {
+  'http_req_failed': ['rate<0.02'],
+  'http_req_duration{type:orders_get}': ['p(95)<200'],
+  'http_req_duration{type:orders_post}': ['p(95)<400'],
+  'http_req_duration{type:slow}': ['p(95)<900'],
+
+  // Force families to appear:
+  'status_family{family:2xx}': ['count>=0'],
+  'status_family{family:4xx}': ['count>=0'],
+  'status_family{family:5xx}': ['count>=0'],
+
+  // Force specific status codes to appear (add more if useful):
+  // add per-type breakdown (this gives you which endpoint “type” returned 5xx):
+  'status_count{status:500,type:orders_get}':  ['count>=0'],
+  'status_count{status:500,type:orders_post}': ['count>=0'],
+  'status_count{status:500,type:slow}':        ['count>=0'],
+  'status_count{status:503,type:orders_get}':  ['count>=0'],
+  'status_count{status:503,type:orders_post}': ['count>=0'],
+  'status_count{status:503,type:slow}':        ['count>=0'],
+  'status_count{status:200,type:orders_get}':  ['count>=0'],
+  'status_count{status:200,type:orders_post}': ['count>=0'],
+  'status_count{status:200,type:slow}':        ['count>=0'],
+  'status_count{status:201,type:orders_get}':  ['count>=0'],
+  'status_count{status:201,type:orders_post}': ['count>=0'],
+  'status_count{status:201,type:slow}':        ['count>=0'],
+  'status_count{status:404,type:orders_get}':  ['count>=0'],
+  'status_count{status:404,type:orders_post}': ['count>=0'],
+  'status_count{status:404,type:slow}':        ['count>=0'],
+};
+
+// constant_rate.js keeps its original summary; the newer scripts add p99 (spike recovery is read off it)
+export const TREND_STATS     = ['avg','p(95)','max'];
+export const TREND_STATS_P99 = ['avg','p(95)','p(99)','max'];
+
+export function baseOptions(scenarios, trendStats = TREND_STATS) {
+  return {
+    discardResponseBodies: true,
+    batchPerHost: Math.max(20, BATCH * 2), // default is 6; raise to avoid per-host queuing
+    thresholds,
+    scenarios,
+    tags: { run: RUN_ID, jvm: JVM_TAG, engine: ENGINE },   // lets the runner filter remote-written k6 series per run
+    systemTags: ['name','method','status','scenario'], // drop 'url', 'group', etc.
+    summaryTrendStats: trendStats,                      // fewer percentile calcs
+  };
+}
+
+// ---- Derived sizing for arrival-rate executors: VUs ≈ iters/s * avgIterSec ---
+export function vusFor(itersPerSec, avgIterMs) {
+  const avgIterSec      = Math.max(0.001, avgIterMs / 1000);
+  const requiredVUs     = Math.max(1, Math.ceil(itersPerSec * avgIterSec));
+  const preAllocatedVUs = Math.max(requiredVUs, envNum('PRE_VUS', 0)); // allow manual floor
+  return { preAllocatedVUs, maxVUs: Math.ceil(preAllocatedVUs * 1.5) };
+}
+
+// integer iters/s for arrival-rate executors (one iteration = one batch)
+export function itersFor(rps, batch = BATCH) {
+  return Math.max(1, Math.ceil(rps / batch));
+}
+
+
+// ---- Build one parallel batch of requests -----------------------------------
+const mkGet = () => {
+  return ['GET', `${GET_ORDERS_URL}${pickId()}`, null, {
+    tags: { name: 'GET /orders/:id', type: 'orders_get' },
+  }];
+};
+
+const mkPost = () => {
+  const payload = JSON.stringify({ customer: 'alice', totalCents: 12345 });
+  return ['POST', POST_ORDERS_URL, payload, {
+    headers: { 'Content-Type': 'application/json' },
+    tags: { name: 'POST /orders', type: 'orders_post' },
+  }];
+};
+
+const mkSlow = () => ['GET', SLOW_URL, null, {
+  tags: { name: 'GET /orders/report/slow/300', type: 'slow' },
+}];
+
+export function buildBatch(size = BATCH, randomStart = false) {
+    const cycle = [];
+
+    // compose a cycle like: G,G,G,G, P, S (default 4:1:1)
+    for (let i = 0; i < RATIO_GET;  i++) cycle.push(mkGet);
+    for (let i = 0; i < RATIO_POST; i++) cycle.push(mkPost);
+    for (let i = 0; i < RATIO_SLOW; i++) cycle.push(mkSlow);
+
+    // repeat the cycle from its start until we reach the batch length (fresh id per GET);
+    // randomStart keeps the mix right for batches smaller than a cycle (closed model uses size 1)
+    const reqs = [];
+    let k = randomStart ? Math.floor(Math.random() * cycle.length) : 0;
+    while (reqs.length < size) {
+        reqs.push(cycle[k++ % cycle.length]());
+    }
+
+    return reqs;
+}
+
+// ---- VU code ----------------------------------------------------------------
+export function runBatch(size = BATCH, randomStart = false) {
+    const reqs = buildBatch(size, randomStart); // keep a copy to know names
+    const resps = http.batch(reqs);
+
+    for (let i = 0; i < resps.length; i++) {
+        const r = resps[i];
+        const [method, url, _body, opts] = reqs[i];
+        const st   = r.status | 0;
+        const fam  = `${Math.floor(st / 100)}xx`;
+
+        // business success (adjust if 202/204 are OK for you)
+        const ok = (st === 200 || st === 201);
+        business_resps_ok.add(ok);
+
+        const typeTag = (opts && opts.tags) ? opts.tags.type : undefined;
+
+        const tags1 = { status: String(st) };
+        if (typeTag !== undefined) tags1.type = String(typeTag);
+        status_count.add(1, tags1);
+
+        const tags2 = { family: fam };
+        if (typeTag !== undefined) tags2.type = String(typeTag);
+        status_family.add(1, tags2);
+    }
+}
+
+// ---- Summary --------------------------------------------------------------
+export function summarize(data) {
+    // Collect per-status totals from submetrics like: status_count{status:404, name:..., type:...}
+    const rows = [];
+    for (const [k, m] of Object.entries(data.metrics)) {
+        if (!k.startsWith('status_count{')) continue;
+        const tagStr = k.slice('status_count{'.length, -1); // inside {...}
+        const tags = Object.fromEntries(tagStr.split(',').map(s => s.split(':').map(x => x.trim())));
+        rows.push({ status: tags.status, type: tags.type, count: m.values.count });
+    }
+
+    // Aggregate by status code
+    const byStatus = rows.reduce((acc, r) => (acc[r.status] = (acc[r.status] || 0) + r.count, acc), {});
+    const header = '\nSTATUS BREAKDOWN (all requests)\nstatus\tcount';
+    const lines  = Object.entries(byStatus)
+    .sort((a,b) => Number(a[0]) - Number(b[0]))
+    .map(([st, cnt]) => `${st}\t${cnt}`)
+    .join('\n');
+
+    // Top offenders by (type, status)
+    const byName = [...rows].sort((a,b) => b.count - a.count).slice(0, 10)
+    .map(r => `${r.status}\t${r.count}\t${r.type}`);
+
+    const extra =
+    `${header}\n${lines}\n\nTOP (status, count, type)\nstatus\tcount\ttype\n${byName.join('\n')}\n`;
+
+    return {
+        stdout: textSummary(data, { indent: ' ', enableColors: true }) + extra,
+        'status_breakdown.json': JSON.stringify({ byStatus, rows }, null, 2),
+    };
+}
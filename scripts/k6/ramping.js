@@ -0,0 +1,48 @@
+import { envNum, envStr, baseOptions, TREND_STATS_P99, vusFor, itersFor, runBatch, summarize } from './common.js';
+
+// Open model, README methodology: light → medium → heavy, each stage ramps then holds.
+// STAGES overrides the defaults with "duration:rps" pairs, e.g. "30s:200,2m:200,30s:1000,2m:1000".
+
+// ---- Env knobs --------------------------------------------------------------
+const RPS_LIGHT    = envNum('RPS_LIGHT', 200);
+const RPS_MEDIUM   = envNum('RPS_MEDIUM', 1000);
+const RPS_HEAVY    = envNum('RPS_HEAVY', 3000);
+const RAMP         = envStr('RAMP', '30s');
+const HOLD         = envStr('HOLD', '2m');
+const AVG_ITER_MS  = envNum('AVG_ITER_MS', 130);
+
+function parseStages(raw) {
+  return raw.split(',').map(s => {
+    const [duration, rps] = s.trim().split(':');
+    const n = Number(rps);
+    if (!duration || !Number.isFinite(n)) throw new Error(`Bad STAGES entry "${s}" (want duration:rps)`);
+    return { duration, target: itersFor(n) };
+  });
+}
+
+const stages = __ENV.STAGES
+  ? parseStages(__ENV.STAGES)
+  : [RPS_LIGHT, RPS_MEDIUM, RPS_HEAVY].flatMap(rps => [
+      { duration: RAMP, target: itersFor(rps) },
+      { duration: HOLD, target: itersFor(rps) },
+    ]);
+
+const peak = Math.max(...stages.map(s => s.target));
+const { preAllocatedVUs, maxVUs } = vusFor(peak, AVG_ITER_MS);
+
+// ---- k6 options -------------------------------------------------------------
+export const options = baseOptions({
+  ramp: {
+    executor: 'ramping-arrival-rate',
+    startRate: 1,
+    timeUnit: '1s',
+    stages,
+    preAllocatedVUs,
+    maxVUs,
+    gracefulStop: '30s',
+  },
+}, TREND_STATS_P99);
+
+export default function () { runBatch(); }
+
+export function handleSummary(data) { return summarize(data); }
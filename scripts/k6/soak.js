@@ -0,0 +1,28 @@
+import { envNum, envStr, baseOptions, TREND_STATS_P99, vusFor, itersFor, runBatch, summarize } from './common.js';
+
+// Open model at a moderate constant rate for a long time: leaks, GC drift, pool churn.
+
+// ---- Env knobs --------------------------------------------------------------
+const RPS          = envNum('RPS', 500);
+const DURATION     = envStr('DURATION', '1h');
+const AVG_ITER_MS  = envNum('AVG_ITER_MS', 130);
+
+const itersPerSec                  = itersFor(RPS);
+const { preAllocatedVUs, maxVUs }  = vusFor(itersPerSec, AVG_ITER_MS);
+
+// ---- k6 options -------------------------------------------------------------
+export const options = baseOptions({
+  soak: {
+    executor: 'constant-arrival-rate',
+    rate: itersPerSec,
+    timeUnit: '1s',
+    duration: DURATION,
+    preAllocatedVUs,
+    maxVUs,
+    gracefulStop: '1m',
+  },
+}, TREND_STATS_P99);
+
+export default function () { runBatch(); }
+
+export function handleSummary(data) { return summarize(data); }
@@ -0,0 +1,40 @@
+import { envNum, envStr, baseOptions, TREND_STATS_P99, vusFor, itersFor, runBatch, summarize } from './common.js';
+
+// Open model: steady baseline, near-instant jump to SPIKE_RPS, then back to baseline
+// for RECOVERY so the dashboards show how long p99 and pool pending take to settle.
+
+// ---- Env knobs --------------------------------------------------------------
+const BASE_RPS       = envNum('BASE_RPS', 300);
+const SPIKE_RPS      = envNum('SPIKE_RPS', 3000);
+const WARM           = envStr('WARM', '1m');
+const SPIKE_RISE     = envStr('SPIKE_RISE', '5s');
+const SPIKE_HOLD     = envStr('SPIKE_HOLD', '30s');
+const RECOVERY       = envStr('RECOVERY', '2m');
+const AVG_ITER_MS    = envNum('AVG_ITER_MS', 130);
+
+const base  = itersFor(BASE_RPS);
+const spike = itersFor(SPIKE_RPS);
+const { preAllocatedVUs, maxVUs } = vusFor(spike, AVG_ITER_MS);
+
+// ---- k6 options -------------------------------------------------------------
+export const options = baseOptions({
+  spike: {
+    executor: 'ramping-arrival-rate',
+    startRate: base,
+    timeUnit: '1s',
+    stages: [
+      { duration: WARM,       target: base  },
+      { duration: SPIKE_RISE, target: spike },
+      { duration: SPIKE_HOLD, target: spike },
+      { duration: SPIKE_RISE, target: base  },
+      { duration: RECOVERY,   target: base  },
+    ],
+    preAllocatedVUs,
+    maxVUs,
+    gracefulStop: '30s',
+  },
+}, TREND_STATS_P99);
+
+export default function () { runBatch(); }
+
+export function handleSummary(data) { return summarize(data); }
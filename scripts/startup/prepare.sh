@@ -0,0 +1,40 @@
+#!/bin/sh
+# Prepares a fast-startup mode from a warm application, run from the repo root:
+#   scripts/startup/prepare.sh fast   -> trains the AppCDS archive on a k6 warm-up
+#   scripts/startup/prepare.sh crac   -> takes a CRaC checkpoint after a k6 warm-up
+# Re-run after every jar rebuild. WARMUP_RPS / WARMUP_DURATION tune the warm-up load.
+set -eu
+
+MODE="${1:?usage: prepare.sh fast|crac}"
+case "$MODE" in
+  fast) SVC=backend-fast; PROFILE=fast-startup; PORT=8082; VOLUME=backend_cds ;;
+  crac) SVC=backend-crac; PROFILE=crac;         PORT=8083; VOLUME=backend_crac ;;
+  *) echo "unknown mode: $MODE" >&2; exit 2 ;;
+esac
+
+WARMUP_RPS="${WARMUP_RPS:-200}"
+WARMUP_DURATION="${WARMUP_DURATION:-2m}"   # README: warm-up >= 2m before the JIT settles
+
+echo "Resetting $SVC state..."
+docker compose --profile "$PROFILE" rm -sf "$SVC"
+docker volume rm -f "${COMPOSE_PROJECT_NAME:-$(basename "$PWD")}_$VOLUME" >/dev/null
+docker compose --profile "$PROFILE" up -d --build "$SVC"
+
+echo "Waiting for $SVC..."
+until curl -fs "http://localhost:$PORT/actuator/health" >/dev/null; do sleep 1; done
+
+echo "Warm-up: $WARMUP_RPS rps for $WARMUP_DURATION"
+docker compose exec -T \
+  -e BASE_URL="http://$SVC:8080" -e RPS="$WARMUP_RPS" -e DURATION="$WARMUP_DURATION" -e RUN_ID="prepare-$MODE" \
+  k6 k6 run --compatibility-mode=extended /work/constant_rate.js
+
+if [ "$MODE" = fast ]; then
+  # the dynamic archive is written while the JVM exits; give it time
+  docker compose --profile "$PROFILE" stop -t 60 "$SVC"
+else
+  # the JVM dumps itself and exits; the next start restores from the image
+  docker compose exec -T "$SVC" jcmd /app/app.jar JDK.checkpoint || true
+  docker compose --profile "$PROFILE" stop -t 60 "$SVC"
+fi
+
+echo "$SVC prepared; start a run with \"startupMode\": \"$MODE\"."